@@ -0,0 +1,149 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the game engine hot paths: building and shuffling a board, playing a whole game
+ * through {@link Game#flipCard}/{@link Game#checkMatch}, and the final match that computes the score.
+ * Boards are square with {@code side} cards per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    private static final LongSupplier FROZEN_CLOCK = () -> 0L; // Keeps System.nanoTime out of the numbers
+
+    @Param({"4", "6", "8", "10", "16", "32"})
+    private int side;
+
+    private SplittableRandom random;
+    private long seed;
+    private int[] playOrder; // Card indices in pair order for the seeded board
+    private SimulationEngine engine;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42);
+        seed = random.nextLong();
+        playOrder = pairOrder(new Game(side, side, seed, FROZEN_CLOCK).getBoard());
+        engine = new SimulationEngine();
+    }
+
+    /**
+     * Games whose last pair is face up and about to be checked, one per call in a batch. They are built
+     * before each iteration, since a per-invocation setup would cost far more than the call it prepares.
+     */
+    @State(Scope.Thread)
+    public static class LastMoves {
+        static final int BATCH = 1000;
+
+        final Game[] games = new Game[BATCH];
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setup(GameBenchmark benchmark) {
+            for (int g = 0; g < BATCH; g++) {
+                Game game = new Game(benchmark.side, benchmark.side, benchmark.seed, FROZEN_CLOCK);
+                int[] order = benchmark.playOrder;
+                for (int i = 0; i < order.length; i += 2) {
+                    game.flipCard(order[i]);
+                    game.flipCard(order[i + 1]);
+                    if (i + 2 < order.length) {
+                        game.checkMatch();
+                    }
+                }
+                games[g] = game;
+            }
+            next = 0;
+        }
+    }
+
+    @Benchmark
+    public GameBoard createBoard() {
+        return new GameBoard(side, side, random);
+    }
+
+    @Benchmark
+    public int playPerfectGame() {
+        Game game = new Game(side, side, seed, FROZEN_CLOCK);
+        int[] order = playOrder;
+        for (int i = 0; i < order.length; i += 2) {
+            game.flipCard(order[i]);
+            game.flipCard(order[i + 1]);
+            game.checkMatch();
+        }
+        return game.getScore();
+    }
+
+    @Benchmark
+    public int playWithMisses() {
+        // Every pair is preceded by a miss, so flipBackCards is exercised as often as a match
+        Game game = new Game(side, side, seed, FROZEN_CLOCK);
+        int[] order = playOrder;
+        for (int i = 0; i < order.length; i += 2) {
+            if (i + 2 < order.length) {
+                game.flipCard(order[i]);
+                game.flipCard(order[i + 2]);
+                game.checkMatch();
+                game.flipBackCards();
+            }
+            game.flipCard(order[i]);
+            game.flipCard(order[i + 1]);
+            game.checkMatch();
+        }
+        return game.getScore();
+    }
+
+    @Benchmark
+    public Game simulatePerfectMemoryPlayer() {
+        return engine.play(side, side, PlayerStrategy.perfectMemory(), random);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = LastMoves.BATCH)
+    @Measurement(iterations = 10, batchSize = LastMoves.BATCH)
+    public int scoreFinalMatch(LastMoves state) {
+        // Each iteration runs exactly one batch, so every call gets a fresh game
+        Game game = state.games[state.next++];
+        game.checkMatch();
+        return game.getScore();
+    }
+
+    /**
+     * Lists card indices so that each consecutive two form a pair
+     */
+    private static int[] pairOrder(GameBoard board) {
+        int[] firstOfValue = new int[board.getTotalCards() / 2];
+        Arrays.fill(firstOfValue, -1);
+        int[] order = new int[board.getTotalCards()];
+        int next = 0;
+        for (int i = 0; i < board.getTotalCards(); i++) {
+            int value = board.getValue(i);
+            if (firstOfValue[value] < 0) {
+                firstOfValue[value] = i;
+            } else {
+                order[next++] = firstOfValue[value];
+                order[next++] = i;
+            }
+        }
+        return order;
+    }
+}
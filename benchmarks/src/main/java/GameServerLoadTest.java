@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load harness for {@link GameServer}: opens many sessions and plays every one of them to the end
+ * over HTTP with a perfect-memory client, then reports request throughput and latency.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar GameServerLoadTest [sessions] [clients] [difficulty]}.
+ * Without a running server on {@code -Dgameserver.url} it starts one in-process.
+ */
+public class GameServerLoadTest {
+    private static final Pattern SESSION = Pattern.compile("\"session\":\"([^\"]+)\"");
+    private static final Pattern CARDS = Pattern.compile("\"cards\":\\[([^\\]]*)\\]");
+    private static final Pattern GAME_OVER = Pattern.compile("\"gameOver\":true");
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final String baseUrl;
+
+    GameServerLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        String difficulty = args.length > 2 ? args[2] : "CLASSIC";
+
+        String url = System.getProperty("gameserver.url");
+        GameServer embedded = null;
+        if (url == null) {
+            embedded = new GameServer(0);
+            embedded.start();
+            url = "http://localhost:" + embedded.getPort();
+        }
+
+        GameServerLoadTest test = new GameServerLoadTest(url);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < sessions; i++) {
+                results.add(pool.submit(() -> test.playOneGame(difficulty)));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<long[]> result : results) {
+                for (long latency : result.get()) {
+                    latencies.add(latency);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = elapsed / 1e9;
+            System.out.printf("%d games, %d requests in %.1f s: %.0f requests/s, %.0f games/s%n",
+                    sessions, sorted.length, seconds, sorted.length / seconds, sessions / seconds);
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        } finally {
+            pool.shutdownNow();
+            if (embedded != null) {
+                embedded.stop();
+            }
+        }
+    }
+
+    /**
+     * Plays a game, remembering every card seen, and returns the latency of each request in nanoseconds
+     */
+    private long[] playOneGame(String difficulty) throws IOException, InterruptedException {
+        List<Long> latencies = new ArrayList<>();
+        String state = call("POST", "/games?difficulty=" + difficulty, latencies);
+        Matcher id = SESSION.matcher(state);
+        if (!id.find()) {
+            throw new IOException("No session in " + state);
+        }
+        String game = "/games/" + id.group(1);
+        int[] cards = cards(state);
+        int[] known = new int[cards.length];
+        Arrays.fill(known, -1);
+        boolean[] matched = new boolean[cards.length];
+
+        while (!GAME_OVER.matcher(state).find()) {
+            int first = knownPairStart(known, matched);
+            if (first < 0) {
+                first = nextUnknown(known, matched, -1);
+            }
+            state = call("POST", game + "/flip?card=" + first, latencies);
+            known[first] = cards(state)[first];
+            int second = partner(known, matched, first);
+            if (second < 0) {
+                second = nextUnknown(known, matched, first);
+            }
+            state = call("POST", game + "/flip?card=" + second, latencies);
+            known[second] = cards(state)[second];
+            state = call("POST", game + "/check", latencies);
+            if (known[first] == known[second]) {
+                matched[first] = true;
+                matched[second] = true;
+            }
+        }
+        call("DELETE", game, latencies);
+        return latencies.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private String call(String method, String path, List<Long> latencies) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        latencies.add(System.nanoTime() - start);
+        if (response.statusCode() >= 400) {
+            throw new IOException(method + " " + path + " -> " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static int[] cards(String state) {
+        Matcher matcher = CARDS.matcher(state);
+        if (!matcher.find()) {
+            return new int[0];
+        }
+        return Arrays.stream(matcher.group(1).split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static int knownPairStart(int[] known, boolean[] matched) {
+        Map<Integer, Integer> seen = new HashMap<>();
+        for (int i = 0; i < known.length; i++) {
+            if (known[i] >= 0 && !matched[i] && seen.putIfAbsent(known[i], i) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int partner(int[] known, boolean[] matched, int card) {
+        for (int i = 0; i < known.length; i++) {
+            if (i != card && !matched[i] && known[i] == known[card]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int nextUnknown(int[] known, boolean[] matched, int exclude) {
+        for (int i = 0; i < known.length; i++) {
+            if (i != exclude && !matched[i] && known[i] < 0) {
+                return i;
+            }
+        }
+        for (int i = 0; i < known.length; i++) {
+            if (i != exclude && !matched[i]) {
+                return i; // Only remembered, unpaired cards are left
+            }
+        }
+        return -1;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]) / 1000.0;
+    }
+}
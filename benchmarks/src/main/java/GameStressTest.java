@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress harness for the lock-free {@link Game}: several threads play the same board at once, flipping,
+ * checking and flipping back as fast as they can, and every finished game is checked against the
+ * bookkeeping the threads kept themselves. A lost update, an extra flip or a pair matched twice
+ * shows up as a violation.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar GameStressTest [games] [threads] [rows] [cols]}.
+ * Exits with status 1 if any game broke an invariant.
+ */
+public class GameStressTest {
+
+    /**
+     * What one thread saw succeed during one game
+     */
+    private static final class Tally {
+        int flips;       // flipCard calls that returned true
+        int matches;     // checkMatch calls that returned true
+        int loneBacks;   // flipBackCards calls that turned down a single card
+        int pairBacks;   // flipBackCards calls that turned down two cards
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : rows;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int violations = 0;
+        long transitions = 0;
+        long start = System.nanoTime();
+        try {
+            for (int g = 0; g < games; g++) {
+                Game game = new Game(rows, cols, g);
+                int[] partner = partners(game.getBoard());
+                AtomicInteger matchEvents = new AtomicInteger();
+                game.setEventListener(new GameEventListener() {
+                    @Override
+                    public void onFlip(int cardIndex, long elapsedNanos) {
+                    }
+
+                    @Override
+                    public void onCheck(boolean matched, long elapsedNanos) {
+                        if (matched) {
+                            matchEvents.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onFlipBack(long elapsedNanos) {
+                    }
+                });
+
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Tally>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(pool.submit(() -> {
+                        go.await();
+                        return play(game, partner);
+                    }));
+                }
+                go.countDown();
+
+                Tally total = new Tally();
+                for (Future<Tally> result : results) {
+                    Tally tally = result.get();
+                    total.flips += tally.flips;
+                    total.matches += tally.matches;
+                    total.loneBacks += tally.loneBacks;
+                    total.pairBacks += tally.pairBacks;
+                }
+                transitions += total.flips + total.matches + total.loneBacks + total.pairBacks;
+
+                String problem = check(game, total, matchEvents.get());
+                if (problem != null) {
+                    violations++;
+                    System.out.println("game " + g + ": " + problem);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games of %dx%d, %d threads each: %d transitions in %.1f s (%.0f/s), %d violations%n",
+                games, rows, cols, threads, transitions, seconds, transitions / seconds, violations);
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays until the game is over, sharing the board with the other threads.
+     * Half the time the second pick is the partner of a face-up card, so games finish quickly.
+     */
+    private static Tally play(Game game, int[] partner) {
+        Tally tally = new Tally();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int totalCards = partner.length;
+        while (!game.isGameOver()) {
+            int faceUp = game.getState().getFlippedCard(0);
+            int index = faceUp >= 0 && random.nextBoolean() ? partner[faceUp] : random.nextInt(totalCards);
+            if (game.flipCard(index)) {
+                tally.flips++;
+            }
+            if (game.getFlippedCardCount() == 2) {
+                if (game.checkMatch()) {
+                    tally.matches++;
+                } else {
+                    int turned = game.flipBackCards();
+                    if (turned == 1) {
+                        tally.loneBacks++;
+                    } else if (turned == 2) {
+                        tally.pairBacks++;
+                    }
+                }
+            } else if (random.nextInt(8) == 0) {
+                // Now and then give up on a lone card, racing the other threads' flips;
+                // another thread may have turned a second card up meanwhile, so a pair can come back down too
+                int turned = game.flipBackCards();
+                if (turned == 1) {
+                    tally.loneBacks++;
+                } else if (turned == 2) {
+                    tally.pairBacks++;
+                }
+            }
+        }
+        return tally;
+    }
+
+    /**
+     * Checks a finished game against what the threads saw
+     * @return A description of the first broken invariant, or null if the game is consistent
+     */
+    private static String check(Game game, Tally total, int matchEvents) {
+        GameState state = game.getState();
+        int pairs = game.getBoard().getTotalCards() / 2;
+        if (!state.isGameOver() || !state.allCardsMatched() || state.getMatchedPairs() != pairs) {
+            return "game did not finish: " + state.getMatchedPairs() + "/" + pairs + " pairs";
+        }
+        if (total.matches != pairs || matchEvents != pairs) {
+            return total.matches + " successful match checks and " + matchEvents + " match events for " + pairs + " pairs";
+        }
+        // Every move is two flips ended by a match or a flip-back; every other flip was a lone card turned back
+        if (total.flips != 2 * state.getMoves() + total.loneBacks) {
+            return total.flips + " flips for " + state.getMoves() + " moves and " + total.loneBacks + " lone flip-backs";
+        }
+        if (state.getMoves() != pairs + total.pairBacks) {
+            return state.getMoves() + " moves for " + pairs + " matches and " + total.pairBacks + " pair flip-backs";
+        }
+        int expectedScore = pairs * 100 + state.getTimeBonus() + Math.max(0, 500 - state.getMoves() * 10);
+        if (state.getScore() != expectedScore) {
+            return "score " + state.getScore() + ", expected " + expectedScore;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the other card of every pair
+     */
+    private static int[] partners(GameBoard board) {
+        int totalCards = board.getTotalCards();
+        int[] partner = new int[totalCards];
+        int[] seen = new int[totalCards / 2];
+        Arrays.fill(seen, -1);
+        for (int i = 0; i < totalCards; i++) {
+            int value = board.getValue(i);
+            if (seen[value] < 0) {
+                seen[value] = i;
+            } else {
+                partner[i] = seen[value];
+                partner[seen[value]] = i;
+            }
+        }
+        return partner;
+    }
+}
@@ -0,0 +1,160 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load harness for {@link LeaderboardHttpService}: many clients submit times over HTTP while others read
+ * /top and /me, against a service whose log lives in a temporary directory.
+ * <p>
+ * Reports submissions per second and submit latency, then closes the store, loads the log again and checks that
+ * the reloaded leaderboard matches the one that was served.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar LeaderboardLoadTest [submitters] [readers] [submissionsPerSubmitter] [users]}.
+ */
+public class LeaderboardLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int submitters = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int perSubmitter = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+
+        Path dir = Files.createTempDirectory("leaderboard-load");
+        Path log = dir.resolve("leaderboard.log");
+        ExecutorService clients = Executors.newFixedThreadPool(submitters + readers);
+        LeaderboardStore store = new LeaderboardStore(log);
+        LeaderboardHttpService service = new LeaderboardHttpService(0, store);
+        service.start();
+        String base = "http://localhost:" + service.getPort();
+        HttpClient http = HttpClient.newHttpClient();
+        int failures = 0;
+        try {
+            // Warm up the server and client before timing
+            for (int i = 0; i < 200; i++) {
+                post(http, base, "warmup" + (i % 10), 1000 + i);
+            }
+
+            List<Future<long[]>> submits = new ArrayList<>();
+            AtomicLong reads = new AtomicLong();
+            AtomicLong readErrors = new AtomicLong();
+            long start = System.nanoTime();
+            for (int s = 0; s < submitters; s++) {
+                submits.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[perSubmitter];
+                    for (int i = 0; i < perSubmitter; i++) {
+                        long sent = System.nanoTime();
+                        int status = post(http, base, "user" + random.nextInt(users), 10 + random.nextInt(100_000) / 100.0);
+                        latencies[i] = status == 200 ? System.nanoTime() - sent : -1;
+                    }
+                    return latencies;
+                }));
+            }
+            List<Future<?>> readTasks = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                readTasks.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!submits.stream().allMatch(Future::isDone)) {
+                        String path = random.nextBoolean()
+                                ? "/top?limit=" + (1 + random.nextInt(100))
+                                : "/me?username=user" + random.nextInt(users);
+                        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            readErrors.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<long[]> future : submits) {
+                for (long latency : future.get()) {
+                    if (latency < 0) {
+                        failures++;
+                    } else {
+                        latencies.add(latency);
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            for (Future<?> future : readTasks) {
+                future.get();
+            }
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%d submitters, %d readers: %d submissions in %.1f s = %.0f submissions/s, %d reads%n",
+                    submitters, readers, sorted.length, seconds, sorted.length / seconds, reads.get());
+            System.out.printf("submit p50 %.2f ms, p99 %.2f ms, max %.2f ms; %d disk flushes, %d compactions%n",
+                    percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0),
+                    store.getFlushCount(), store.getCompactionCount());
+            failures += readErrors.get();
+
+            List<LeaderboardStore.Entry> served = store.top(Integer.MAX_VALUE);
+            int size = store.size();
+            service.stop();
+            store.close();
+            LeaderboardStore reloaded = new LeaderboardStore(log);
+            List<LeaderboardStore.Entry> replayed = reloaded.top(Integer.MAX_VALUE);
+            reloaded.close();
+            if (reloaded.size() != size || !sameEntries(served, replayed)) {
+                failures++;
+                System.out.println("the reloaded log differs from the leaderboard that was served");
+            }
+            System.out.printf("%d users reloaded from a %d KB log, %d failed requests or mismatches%n",
+                    reloaded.size(), Files.size(log) / 1024, failures);
+        } finally {
+            service.stop();
+            store.close();
+            clients.shutdownNow();
+            Files.deleteIfExists(log);
+            Files.deleteIfExists(dir);
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int post(HttpClient http, String base, String username, double time) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/submit"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"time\":" + time + "}"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    private static boolean sameEntries(List<LeaderboardStore.Entry> a, List<LeaderboardStore.Entry> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            LeaderboardStore.Entry x = a.get(i);
+            LeaderboardStore.Entry y = b.get(i);
+            if (!x.getUsername().equals(y.getUsername()) || x.getTime() != y.getTime()
+                    || x.getCreatedAt() != y.getCreatedAt() || x.getUpdatedAt() != y.getUpdatedAt()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness for {@link MultiplayerBoard} on a {@link LoopbackServer}: many boards are played to the end at once
+ * by bot players that only know what the broadcast events tell them. Every board also has a spectator that never
+ * reads, to show that a stalled client is resynced instead of holding the others up.
+ * <p>
+ * Reports how long it takes from sending a flip until the player sees it broadcast, then checks that every
+ * client, including the stalled one once it catches up, ends up with the same board.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar MultiplayerLoadTest [boards] [players] [TURNS|RACE] [rows] [cols]}.
+ */
+public class MultiplayerLoadTest {
+    private static final long REVEAL_MILLIS = 20;
+    private static final long LATENCY_MILLIS = 1;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int STALLED_QUEUE_CAPACITY = 4;
+    private static final long GIVE_UP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * What one bot saw
+     */
+    private static final class Result {
+        final int[] cards;
+        final long[] latencies;
+        final boolean ended;
+
+        Result(int[] cards, long[] latencies, boolean ended) {
+            this.cards = cards;
+            this.latencies = latencies;
+            this.ended = ended;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        MultiplayerBoard.Mode mode = MultiplayerBoard.Mode.valueOf(args.length > 2 ? args[2] : "TURNS");
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int cols = args.length > 4 ? Integer.parseInt(args[4]) : rows;
+
+        ExecutorService bots = Executors.newFixedThreadPool(boards * players);
+        try (LoopbackServer server = new LoopbackServer(LATENCY_MILLIS)) {
+            List<String> ids = new ArrayList<>();
+            List<LoopbackServer.Connection> stalled = new ArrayList<>();
+            List<List<Future<Result>>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int b = 0; b < boards; b++) {
+                String id = server.createBoard(rows, cols, b, mode, players, REVEAL_MILLIS);
+                ids.add(id);
+                stalled.add(server.connect(id, -1, STALLED_QUEUE_CAPACITY));
+                List<Future<Result>> boardResults = new ArrayList<>();
+                for (int p = 0; p < players; p++) {
+                    LoopbackServer.Connection connection = server.connect(id, p, QUEUE_CAPACITY);
+                    int player = p;
+                    boardResults.add(bots.submit(() -> play(connection, player, rows * cols)));
+                }
+                results.add(boardResults);
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            int failures = 0;
+            long resyncs = 0;
+            for (int b = 0; b < boards; b++) {
+                List<Result> boardResults = new ArrayList<>();
+                for (Future<Result> future : results.get(b)) {
+                    boardResults.add(future.get());
+                }
+                int[] expected = faceValues(server.getBoard(ids.get(b)).getGame().getBoard());
+                for (Result result : boardResults) {
+                    for (long latency : result.latencies) {
+                        latencies.add(latency);
+                    }
+                    if (!result.ended || !Arrays.equals(result.cards, expected)) {
+                        failures++;
+                        System.out.println("board " + b + ": a player's view differs from the board");
+                    }
+                }
+                LoopbackServer.Connection spectator = stalled.get(b);
+                resyncs += spectator.getResyncCount();
+                if (!Arrays.equals(drain(spectator, rows * cols), expected)) {
+                    failures++;
+                    System.out.println("board " + b + ": the stalled spectator did not catch up");
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%d %s boards of %dx%d with %d players in %.1f s: %d flips broadcast%n",
+                    boards, mode, rows, cols, players, seconds, sorted.length);
+            System.out.printf("flip to broadcast p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0));
+            System.out.printf("stalled spectators resynced %d times, %d inconsistent views%n", resyncs, failures);
+            if (failures > 0) {
+                System.exit(1);
+            }
+        } finally {
+            bots.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays as one player until the game ends, remembering every card value seen in a broadcast
+     * @return The final view of the board and the flip-to-broadcast latencies in nanoseconds
+     */
+    private static Result play(LoopbackServer.Connection connection, int player, int totalCards) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] cards = new int[totalCards]; // Value of each face-up card, -1 when face down
+        int[] known = new int[totalCards]; // Value last seen for each card, -1 if never seen
+        Arrays.fill(cards, -1);
+        Arrays.fill(known, -1);
+        int turn = 0;
+        int first = -1; // First card of the current pick
+        int holder = -1; // Player who turned it up
+        int second = -1;
+        int sentCard = -1; // Flip waiting to be seen in a broadcast; the bot acts on what it sees, so it waits
+        long sentAt = 0;
+        boolean ended = false;
+        List<Long> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + GIVE_UP_NANOS;
+
+        while (!ended && System.nanoTime() < deadline) {
+            List<BoardEvent> frame = connection.receive(5, TimeUnit.MILLISECONDS);
+            if (frame != null) {
+                for (BoardEvent event : frame) {
+                    switch (event.getType()) {
+                        case FLIP:
+                            cards[event.getCardA()] = event.getValue();
+                            known[event.getCardA()] = event.getValue();
+                            if (first < 0) {
+                                first = event.getCardA();
+                                holder = event.getPlayer();
+                            } else {
+                                second = event.getCardA();
+                            }
+                            if (event.getPlayer() == player && event.getCardA() == sentCard) {
+                                latencies.add(System.nanoTime() - sentAt);
+                                sentCard = -1;
+                            }
+                            break;
+                        case MATCH:
+                            first = second = holder = -1;
+                            break;
+                        case FLIP_BACK:
+                            cards[event.getCardA()] = -1;
+                            if (event.getCardB() >= 0) {
+                                cards[event.getCardB()] = -1;
+                            }
+                            first = second = holder = -1;
+                            break;
+                        case TURN:
+                            turn = event.getPlayer();
+                            break;
+                        case END:
+                            ended = true;
+                            break;
+                        case SNAPSHOT:
+                            cards = event.getCards();
+                            for (int i = 0; i < totalCards; i++) {
+                                if (cards[i] >= 0) {
+                                    known[i] = cards[i];
+                                }
+                            }
+                            turn = event.getPlayer();
+                            first = event.getCardA();
+                            second = event.getCardB();
+                            holder = -1; // Unknown; a pick left over from before the snapshot times out
+                            sentCard = -1; // Its broadcast may have been dropped with the backlog
+                            break;
+                    }
+                }
+            }
+
+            boolean myTurn = turn == player || turn < 0;
+            boolean canPickFirst = first < 0;
+            boolean canPickSecond = first >= 0 && second < 0 && holder == player;
+            if (ended || sentCard >= 0 || !myTurn || !(canPickFirst || canPickSecond)) {
+                continue;
+            }
+            int card = canPickFirst ? pickFirst(cards, known, random) : pickPartner(cards, known, first, random);
+            if (card < 0) {
+                continue;
+            }
+            sentCard = card;
+            sentAt = System.nanoTime();
+            if (!connection.flip(card).get()) {
+                sentCard = -1;
+            }
+        }
+        connection.close();
+        long[] result = latencies.stream().mapToLong(Long::longValue).toArray();
+        return new Result(cards, result, ended);
+    }
+
+    /**
+     * Picks one card of a pair already seen, or else a face-down card
+     */
+    private static int pickFirst(int[] cards, int[] known, ThreadLocalRandom random) {
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] < 0 && known[i] >= 0) {
+                for (int j = i + 1; j < cards.length; j++) {
+                    if (cards[j] < 0 && known[j] == known[i]) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return randomFaceDown(cards, random);
+    }
+
+    /**
+     * Picks the partner of the first card if it has been seen, or else a face-down card
+     */
+    private static int pickPartner(int[] cards, int[] known, int first, ThreadLocalRandom random) {
+        for (int i = 0; i < cards.length; i++) {
+            if (i != first && cards[i] < 0 && known[i] == cards[first]) {
+                return i;
+            }
+        }
+        return randomFaceDown(cards, random);
+    }
+
+    private static int randomFaceDown(int[] cards, ThreadLocalRandom random) {
+        int faceDown = 0;
+        for (int value : cards) {
+            if (value < 0) {
+                faceDown++;
+            }
+        }
+        if (faceDown == 0) {
+            return -1;
+        }
+        int n = random.nextInt(faceDown);
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] < 0 && n-- == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads everything a stalled client has queued and applies it to an empty view
+     */
+    private static int[] drain(LoopbackServer.Connection connection, int totalCards) throws InterruptedException {
+        int[] cards = new int[totalCards];
+        Arrays.fill(cards, -1);
+        List<BoardEvent> frame;
+        while ((frame = connection.receive(100, TimeUnit.MILLISECONDS)) != null) {
+            for (BoardEvent event : frame) {
+                if (event.getType() == BoardEvent.Type.SNAPSHOT) {
+                    cards = event.getCards();
+                } else if (event.getType() == BoardEvent.Type.FLIP) {
+                    cards[event.getCardA()] = event.getValue();
+                } else if (event.getType() == BoardEvent.Type.FLIP_BACK) {
+                    cards[event.getCardA()] = -1;
+                    if (event.getCardB() >= 0) {
+                        cards[event.getCardB()] = -1;
+                    }
+                }
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Gets what a client should see once every pair is matched: each card's value
+     */
+    private static int[] faceValues(GameBoard board) {
+        int[] values = new int[board.getTotalCards()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = board.isFlipped(i) ? board.getValue(i) : -1;
+        }
+        return values;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
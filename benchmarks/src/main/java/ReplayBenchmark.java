@@ -0,0 +1,73 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording a game into the replay format and re-simulating a recorded game,
+ * which bounds how many leaderboard entries one core can audit per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+    @Param({"4", "6", "8", "10"})
+    private int side;
+
+    private byte[] replay;
+
+    @Setup
+    public void setup() {
+        replay = record(new SplittableRandom(42));
+    }
+
+    @Benchmark
+    public byte[] recordGame() {
+        return record(new SplittableRandom(7));
+    }
+
+    @Benchmark
+    public int replayGame() throws IOException {
+        return ReplayReader.replay(replay).getScore();
+    }
+
+    /**
+     * Plays a game with a limited-memory player and returns its replay
+     */
+    private byte[] record(SplittableRandom random) {
+        long[] now = {0};
+        Game game = new Game(side, side, random.nextLong(), () -> now[0]);
+        ReplayWriter writer = ReplayWriter.record(game);
+        PlayerStrategy.Player player = PlayerStrategy.limitedMemory(8).newPlayer(side * side, random);
+        while (!game.isGameOver()) {
+            int first = player.pick(game.getBoard(), -1);
+            flip(game, player, first, now);
+            flip(game, player, player.pick(game.getBoard(), first), now);
+            now[0] += 1_000_000_000L;
+            if (!game.checkMatch()) {
+                game.flipBackCards();
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static void flip(Game game, PlayerStrategy.Player player, int index, long[] now) {
+        now[0] += 700_000_000L;
+        game.flipCard(index);
+        player.saw(index, game.getBoard().getValue(index));
+    }
+}
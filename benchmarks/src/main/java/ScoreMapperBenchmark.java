@@ -0,0 +1,87 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding a Score to an INSERT through {@link ScoreMapper} against the
+ * reflective getter probing ScoreDatabase used before.
+ * The statement is a no-op proxy so only the mapping cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreMapperBenchmark {
+    private Score score;
+    private PreparedStatement statement;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        score = new Score("Player", 1500, 25, 120);
+        statement = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    if (args != null) {
+                        for (Object arg : args) {
+                            blackhole.consume(arg);
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    @Benchmark
+    public void reflective() throws SQLException {
+        statement.setString(1, extractString(score, "getName", "getPlayer", "getUsername", "name"));
+        statement.setInt(2, extractInt(score, "getScore", "getPoints", "score", "points"));
+    }
+
+    @Benchmark
+    public void mapper() throws SQLException {
+        ScoreMapper.DEFAULT.bind(statement, score);
+    }
+
+    // Copies of the reflective lookups ScoreDatabase used before ScoreMapper
+
+    private static String extractString(Object obj, String... methodNames) {
+        if (obj == null) return "unknown";
+        for (String mName : methodNames) {
+            try {
+                Method m = obj.getClass().getMethod(mName);
+                Object val = m.invoke(obj);
+                if (val != null) return val.toString();
+            } catch (Exception ignored) { }
+        }
+        return obj.toString();
+    }
+
+    private static int extractInt(Object obj, String... methodNames) {
+        if (obj == null) return 0;
+        for (String mName : methodNames) {
+            try {
+                Method m = obj.getClass().getMethod(mName);
+                Object val = m.invoke(obj);
+                if (val instanceof Number) return ((Number) val).intValue();
+                if (val != null) return Integer.parseInt(val.toString());
+            } catch (Exception ignored) { }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,73 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WindowedLeaderboard} inserts and top-10 reads as the score history grows, against
+ * re-sorting the whole history on every read the way leaderboard.js does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WindowedLeaderboardBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int history;
+
+    private WindowedLeaderboard leaderboard;
+    private List<Score> all;
+    private SplittableRandom random;
+    private long now;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42);
+        now = System.currentTimeMillis();
+        leaderboard = new WindowedLeaderboard(null, 100);
+        all = new ArrayList<>(history);
+        for (int i = 0; i < history; i++) {
+            Score score = nextScore();
+            leaderboard.add(score);
+            all.add(score);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        leaderboard.add(nextScore());
+    }
+
+    @Benchmark
+    public List<Score> top10() throws SQLException {
+        return leaderboard.top(Score.DEFAULT_BOARD_SIZE, WindowedLeaderboard.Window.DAILY, 10);
+    }
+
+    @Benchmark
+    public List<Score> resortTop10() {
+        List<Score> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparingInt(Score::getScore).reversed());
+        return sorted.subList(0, Math.min(10, sorted.size()));
+    }
+
+    private Score nextScore() {
+        return new Score("Player" + random.nextInt(1000), random.nextInt(2000), 20, 60,
+                Score.DEFAULT_BOARD_SIZE, now);
+    }
+}
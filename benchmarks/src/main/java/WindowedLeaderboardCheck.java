@@ -0,0 +1,336 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the time-windowed leaderboards end to end:
+ * <ul>
+ *   <li>day and week rollover of {@link WindowedLeaderboard} on a fake clock, including a score delivered
+ *       after the period it was finished in has ended;</li>
+ *   <li>that 8 concurrent writers leave each window holding exactly the true top N;</li>
+ *   <li>that two games with identical results stay two scores, while the same game added twice is one;</li>
+ *   <li>that spooled scores keep their finishing time and replay, even behind a record torn by a crash;</li>
+ *   <li>that {@link ScoreDatabase} stores the finishing time in created_at and that
+ *       {@link ScoreDatabase#topScoresSince} and the windows seeded from it only return the period's scores.</li>
+ * </ul>
+ * Prints one line per check and exits with status 1 if any fails.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar WindowedLeaderboardCheck [jdbcUrl] [user] [password]}.
+ * The database checks default to an in-memory H2 database.
+ */
+public class WindowedLeaderboardCheck {
+    private static final int TOP_N = 10;
+    private static final int BOARD_SIZE = 16;
+
+    private static int failures;
+
+    /**
+     * A clock that only moves when told to
+     */
+    private static final class FakeClock extends Clock {
+        private final ZoneId zone;
+        private volatile long millis;
+
+        FakeClock(ZoneId zone, long millis) {
+            this.zone = zone;
+            this.millis = millis;
+        }
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new FakeClock(zone, millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:h2:mem:windowcheck;DB_CLOSE_DELAY=-1";
+        String user = args.length > 1 ? args[1] : "sa";
+        String password = args.length > 2 ? args[2] : "";
+
+        run("day and week rollover", WindowedLeaderboardCheck::checkRollover);
+        run("bound under 8 writers", WindowedLeaderboardCheck::checkConcurrentBound);
+        run("identical results of two games", WindowedLeaderboardCheck::checkIdenticalGames);
+        run("spool recovery", WindowedLeaderboardCheck::checkSpoolRecovery);
+        run("created_at and topScoresSince (" + url + ")", () -> checkDatabase(url, user, password));
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        void run() throws Exception;
+    }
+
+    private static void run(String name, Check check) {
+        try {
+            check.run();
+            System.out.println("ok    " + name);
+        } catch (Exception | AssertionError e) {
+            failures++;
+            System.out.println("FAIL  " + name + ": " + e);
+        }
+    }
+
+    // ---- Checks --------------------------------------------------------------------------------
+
+    private static void checkRollover() throws Exception {
+        ZoneId zone = ZoneOffset.UTC;
+        LocalDate sunday = LocalDate.of(2026, 1, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        long mondayStart = sunday.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        FakeClock clock = new FakeClock(zone, mondayStart - minute);
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(null, TOP_N, clock);
+
+        Score sunday2359 = score("sun", 500, mondayStart - minute);
+        leaderboard.add(sunday2359);
+        expect(leaderboard, WindowedLeaderboard.Window.DAILY, sunday2359);
+        expect(leaderboard, WindowedLeaderboard.Window.WEEKLY, sunday2359);
+        expect(leaderboard, WindowedLeaderboard.Window.ALL_TIME, sunday2359);
+
+        // Monday: a new day and a new week
+        clock.set(mondayStart + minute);
+        expect(leaderboard, WindowedLeaderboard.Window.DAILY);
+        expect(leaderboard, WindowedLeaderboard.Window.WEEKLY);
+        expect(leaderboard, WindowedLeaderboard.Window.ALL_TIME, sunday2359);
+
+        // Finished on Sunday but delivered on Monday: only all time
+        Score late = score("late", 400, mondayStart - minute / 2);
+        Score monday = score("mon", 300, mondayStart + minute);
+        leaderboard.addAll(List.of(late, monday));
+        expect(leaderboard, WindowedLeaderboard.Window.DAILY, monday);
+        expect(leaderboard, WindowedLeaderboard.Window.WEEKLY, monday);
+        expect(leaderboard, WindowedLeaderboard.Window.ALL_TIME, sunday2359, late, monday);
+
+        // Tuesday: a new day in the same week
+        clock.set(mondayStart + TimeUnit.HOURS.toMillis(34));
+        expect(leaderboard, WindowedLeaderboard.Window.DAILY);
+        expect(leaderboard, WindowedLeaderboard.Window.WEEKLY, monday);
+        expect(leaderboard, WindowedLeaderboard.Window.ALL_TIME, sunday2359, late, monday);
+    }
+
+    private static void checkConcurrentBound() throws Exception {
+        int writers = 8;
+        int perWriter = 20_000;
+        long now = System.currentTimeMillis();
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(null, TOP_N, new FakeClock(ZoneOffset.UTC, now));
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                results.add(pool.submit(() -> {
+                    // Every writer adds its share of distinct points in its own shuffled order
+                    List<Integer> steps = new ArrayList<>(perWriter);
+                    for (int i = 0; i < perWriter; i++) {
+                        steps.add(i);
+                    }
+                    Collections.shuffle(steps);
+                    go.await();
+                    for (int step : steps) {
+                        leaderboard.add(score("w" + writer, step * writers + writer, now));
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int points = writers * perWriter - 1; expected.size() < TOP_N; points--) {
+            expected.add(points);
+        }
+        for (WindowedLeaderboard.Window window : WindowedLeaderboard.Window.values()) {
+            List<Integer> actual = new ArrayList<>();
+            for (Score score : leaderboard.top(BOARD_SIZE, window, Integer.MAX_VALUE)) {
+                actual.add(score.getScore());
+            }
+            check(actual.equals(expected), window + " holds " + actual + ", expected " + expected);
+        }
+    }
+
+    private static void checkIdenticalGames() throws Exception {
+        long now = System.currentTimeMillis();
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(null, TOP_N, new FakeClock(ZoneOffset.UTC, now));
+        Score first = new Score("ann", 700, 8, 30, BOARD_SIZE, now, "game-1");
+        Score second = new Score("ann", 700, 8, 30, BOARD_SIZE, now, "game-2");
+        Score firstAgain = new Score("ann", 700, 8, 30, BOARD_SIZE, now, "game-1"); // e.g. seeded and delivered
+        leaderboard.addAll(List.of(first, second, firstAgain));
+        for (WindowedLeaderboard.Window window : WindowedLeaderboard.Window.values()) {
+            int size = leaderboard.top(BOARD_SIZE, window, TOP_N).size();
+            check(size == 2, window + " holds " + size + " scores, expected 2");
+        }
+    }
+
+    private static void checkSpoolRecovery() throws Exception {
+        Path spool = Files.createTempFile("score-spool", ".log");
+        long finishedAt = 1_700_000_000_000L;
+        String replay = "TUdS"; // Not verified on the way through the spool
+        Files.writeString(spool, "G\tgame-1\tann\t900\t10\t30\t16\t" + finishedAt + "\t" + replay + "\n"
+                + "A\tgame-1\n"
+                + "G\tgame-2\tbob\t800\t12\t40\t16\t" + finishedAt + "\t" + replay + "\n"
+                + "G\tgame-3\tcid\t70", // Torn by a crash
+                StandardCharsets.UTF_8);
+
+        // Storage is down: the next record is spooled behind the torn one
+        CountDownLatch attempted = new CountDownLatch(1);
+        ScoreSubmissionService offline = new ScoreSubmissionService(submissions -> {
+            attempted.countDown();
+            throw new Exception("storage down");
+        }, spool);
+        try {
+            check(attempted.await(5, TimeUnit.SECONDS), "the spool was not recovered");
+            ScoreSubmissionService.Outcome outcome = offline.submit("game-4",
+                    new Score("dee", 600, 8, 30, BOARD_SIZE, finishedAt, "game-4"), new byte[] {'M', 'G', 'R'}).get(5, TimeUnit.SECONDS);
+            check(outcome == ScoreSubmissionService.Outcome.QUEUED, "game-4 was " + outcome);
+        } finally {
+            offline.close();
+        }
+
+        Map<String, ScoreSubmissionService.Submission> delivered = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(1);
+        ScoreSubmissionService online = new ScoreSubmissionService(submissions -> {
+            for (ScoreSubmissionService.Submission submission : submissions) {
+                delivered.put(submission.getId(), submission);
+            }
+            done.countDown();
+        }, spool);
+        try {
+            check(done.await(5, TimeUnit.SECONDS), "nothing was delivered from the spool");
+        } finally {
+            online.close();
+        }
+
+        check(delivered.keySet().equals(Set.of("game-2", "game-4")), "delivered " + delivered.keySet());
+        check(delivered.get("game-2").getScore().getAchievedAt() == finishedAt, "game-2 lost its finishing time");
+        check(delivered.get("game-4").getScore().getPlayerName().equals("dee"), "game-4 came back garbled");
+        check(new String(delivered.get("game-4").getReplay(), StandardCharsets.US_ASCII).equals("MGR"),
+                "game-4 lost its replay");
+        check(Files.size(spool) == 0, "the spool was not emptied after delivery");
+        Files.delete(spool);
+    }
+
+    private static void checkDatabase(String url, String user, String password) throws Exception {
+        long now = System.currentTimeMillis();
+        long day = TimeUnit.DAYS.toMillis(1);
+        FakeClock clock = new FakeClock(ZoneId.systemDefault(), now);
+        List<Score> stored = List.of(
+                score("old", 900, now - 9 * day),
+                score("lastweek", 800, now - 7 * day),
+                score("yesterday", 700, now - day),
+                score("hourago", 600, now - TimeUnit.HOURS.toMillis(1)),
+                score("now", 500, now));
+
+        ScoreDatabase database = new ScoreDatabase(url, user, password);
+        try {
+            database.init();
+            database.insertScores(stored.subList(0, 3));  // Bound directly
+            for (Score score : stored.subList(3, 5)) {
+                database.insertScore(score);                // Through the write-behind queue
+            }
+            database.flush();
+
+            expectStored(stored, database.topScores(BOARD_SIZE, TOP_N), Long.MIN_VALUE, "topScores");
+            long since = now - 8 * day;
+            expectStored(stored, database.topScoresSince(BOARD_SIZE, since, TOP_N), since, "topScoresSince");
+
+            // Fresh windows seed themselves from the database
+            WindowedLeaderboard leaderboard = new WindowedLeaderboard(database, TOP_N, clock);
+            for (WindowedLeaderboard.Window window : WindowedLeaderboard.Window.values()) {
+                long start = window.periodStart(now, clock.getZone());
+                expectStored(stored, leaderboard.top(BOARD_SIZE, window, TOP_N), start, window.name());
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    // ---- Helpers -------------------------------------------------------------------------------
+
+    private static Score score(String player, int points, long achievedAt) {
+        return new Score(player, points, 8, 30, BOARD_SIZE, achievedAt);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static void expect(WindowedLeaderboard leaderboard, WindowedLeaderboard.Window window,
+                               Score... expected) throws Exception {
+        List<String> actual = describe(leaderboard.top(BOARD_SIZE, window, TOP_N));
+        List<Score> ordered = new ArrayList<>(List.of(expected));
+        ordered.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+        check(actual.equals(describe(ordered)), window + " holds " + actual + ", expected " + describe(ordered));
+    }
+
+    /**
+     * Checks that a ranking read back from the database is exactly the stored scores finished since a point in time,
+     * with their finishing times kept to the second
+     */
+    private static void expectStored(List<Score> stored, List<Score> actual, long sinceMillis, String what) {
+        List<Score> expected = new ArrayList<>();
+        for (Score score : stored) {
+            if (score.getAchievedAt() >= sinceMillis) {
+                expected.add(score); // Already best first
+            }
+        }
+        check(describe(actual).equals(describe(expected)),
+                what + " returned " + describe(actual) + ", expected " + describe(expected));
+    }
+
+    private static List<String> describe(List<Score> scores) {
+        List<String> described = new ArrayList<>(scores.size());
+        for (Score score : scores) {
+            described.add(score.getPlayerName() + ":" + score.getScore() + "@" + score.getAchievedAt() / 1000);
+        }
+        return described;
+    }
+}
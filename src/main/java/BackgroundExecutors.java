@@ -0,0 +1,64 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the small worker pools used to keep slow work off the JavaFX application thread.
+ * Workers are virtual threads when the JVM supports them (Java 21+) and daemon platform threads otherwise,
+ * so a pool never keeps the application alive after the window closes.
+ */
+public final class BackgroundExecutors {
+
+    private BackgroundExecutors() {
+    }
+
+    /**
+     * Creates an executor that runs at most {@code maxThreads} tasks at a time and queues the rest.
+     * Idle workers are released after a short while.
+     * @param name Prefix for worker thread names
+     * @param maxThreads Maximum number of concurrently running tasks
+     * @return The executor
+     */
+    public static ExecutorService newBoundedExecutor(String name, int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a thread factory producing virtual threads where available, daemon threads otherwise
+     * @param name Prefix for thread names
+     * @return The thread factory
+     */
+    public static ThreadFactory newThreadFactory(String name) {
+        ThreadFactory virtual = virtualThreadFactory(name);
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().name(name, 1).factory()} reflectively so the code still runs on Java 17
+     * @return A virtual thread factory, or null on JVMs without virtual threads
+     */
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
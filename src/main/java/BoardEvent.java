@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * Something that happened on a {@link MultiplayerBoard}, as broadcast to every connected client.
+ * Events have a one-line text form ({@link #encode()} / {@link #decode(String)}) for sending over a wire.
+ */
+public final class BoardEvent {
+
+    /**
+     * Kind of event
+     */
+    public enum Type {
+        FLIP,       // player turned card a face up; value is its pair identifier
+        MATCH,      // player matched cards a and b and now has value pairs
+        FLIP_BACK,  // cards a and b (b may be -1) were turned face down
+        TURN,       // it is now player's turn
+        END,        // the game is over; player won (-1 for a tie)
+        SNAPSHOT    // full state for a client that joined or fell behind: player = turn, a/b = unmatched face-up cards
+    }
+
+    private final Type type;
+    private final int player;
+    private final int a;
+    private final int b;
+    private final int value;
+    private final int[] cards; // SNAPSHOT only: value of each face-up card, -1 for face down
+    private final int[] pairs; // SNAPSHOT only: pairs matched by each player
+
+    private BoardEvent(Type type, int player, int a, int b, int value, int[] cards, int[] pairs) {
+        this.type = type;
+        this.player = player;
+        this.a = a;
+        this.b = b;
+        this.value = value;
+        this.cards = cards;
+        this.pairs = pairs;
+    }
+
+    static BoardEvent flip(int player, int card, int value) {
+        return new BoardEvent(Type.FLIP, player, card, -1, value, null, null);
+    }
+
+    static BoardEvent match(int player, int cardA, int cardB, int pairs) {
+        return new BoardEvent(Type.MATCH, player, cardA, cardB, pairs, null, null);
+    }
+
+    static BoardEvent flipBack(int cardA, int cardB) {
+        return new BoardEvent(Type.FLIP_BACK, -1, cardA, cardB, -1, null, null);
+    }
+
+    static BoardEvent turn(int player) {
+        return new BoardEvent(Type.TURN, player, -1, -1, -1, null, null);
+    }
+
+    static BoardEvent end(int winner) {
+        return new BoardEvent(Type.END, winner, -1, -1, -1, null, null);
+    }
+
+    static BoardEvent snapshot(int turn, int faceUpA, int faceUpB, int[] cards, int[] pairs) {
+        return new BoardEvent(Type.SNAPSHOT, turn, faceUpA, faceUpB, -1, cards.clone(), pairs.clone());
+    }
+
+    /**
+     * Gets the kind of event
+     * @return The event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the player the event is about
+     * @return Player number, or -1 if the event is not about a player
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the first card the event is about
+     * @return Card index, or -1
+     */
+    public int getCardA() {
+        return a;
+    }
+
+    /**
+     * Gets the second card the event is about
+     * @return Card index, or -1
+     */
+    public int getCardB() {
+        return b;
+    }
+
+    /**
+     * Gets the card value of a FLIP or the player's pair count after a MATCH
+     * @return The value, or -1 for other events
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the card values of a SNAPSHOT
+     * @return Value of each face-up card and -1 for face-down cards, or null for other events
+     */
+    public int[] getCards() {
+        return cards == null ? null : cards.clone();
+    }
+
+    /**
+     * Gets the pair counts of a SNAPSHOT
+     * @return Pairs matched by each player, or null for other events
+     */
+    public int[] getPairs() {
+        return pairs == null ? null : pairs.clone();
+    }
+
+    /**
+     * Encodes the event as one line of text, e.g. {@code FLIP 1 12 5}
+     * @return The encoded event
+     */
+    public String encode() {
+        StringBuilder line = new StringBuilder(type.name());
+        switch (type) {
+            case FLIP:
+                line.append(' ').append(player).append(' ').append(a).append(' ').append(value);
+                break;
+            case MATCH:
+                line.append(' ').append(player).append(' ').append(a).append(' ').append(b).append(' ').append(value);
+                break;
+            case FLIP_BACK:
+                line.append(' ').append(a).append(' ').append(b);
+                break;
+            case TURN:
+            case END:
+                line.append(' ').append(player);
+                break;
+            case SNAPSHOT:
+                line.append(' ').append(player).append(' ').append(a).append(' ').append(b)
+                        .append(' ').append(join(cards)).append(' ').append(join(pairs));
+                break;
+        }
+        return line.toString();
+    }
+
+    /**
+     * Decodes a line produced by {@link #encode()}
+     * @param line The encoded event
+     * @return The event
+     * @throws IllegalArgumentException If the line is not a valid event
+     */
+    public static BoardEvent decode(String line) {
+        String[] parts = line.split(" ");
+        try {
+            Type type = Type.valueOf(parts[0]);
+            switch (type) {
+                case FLIP:
+                    return flip(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+                case MATCH:
+                    return match(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+                case FLIP_BACK:
+                    return flipBack(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                case TURN:
+                    return turn(Integer.parseInt(parts[1]));
+                case END:
+                    return end(Integer.parseInt(parts[1]));
+                default:
+                    return new BoardEvent(type, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]), -1, split(parts[4]), split(parts[5]));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Not a board event: " + line, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+
+    private static String join(int[] values) {
+        StringBuilder joined = new StringBuilder(values.length * 3);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                joined.append(',');
+            }
+            joined.append(values[i]);
+        }
+        return joined.toString();
+    }
+
+    private static int[] split(String joined) {
+        return Arrays.stream(joined.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,57 @@
+import javafx.scene.Node;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Draws a game board and reports card clicks.
+ * {@link ButtonBoardRenderer} uses one Button per card; {@link CanvasBoardRenderer} draws the whole
+ * board on a single Canvas, which keeps node count and layout cost flat on large boards.
+ * Both behave the same from the player's point of view.
+ */
+public interface BoardRenderer {
+    
+    // Boards with at least this many cards use the canvas renderer unless -Dmemorygame.renderer says otherwise
+    int CANVAS_THRESHOLD = 64;
+    
+    /**
+     * Gets the node to place in the scene
+     * @return The board node
+     */
+    Node getNode();
+    
+    /**
+     * Creates the board for a new game and draws every card
+     * @param game The game to draw
+     * @param onCardClick Called with the card index when the player clicks a card
+     */
+    void build(Game game, IntConsumer onCardClick);
+    
+    /**
+     * Redraws the given cards from the current game state
+     * @param cardIndices Indices of the cards that changed
+     */
+    void refresh(int[] cardIndices);
+    
+    /**
+     * Releases animations and listeners when the board is no longer shown
+     */
+    default void dispose() {
+    }
+    
+    /**
+     * Picks the renderer for a board size.
+     * {@code -Dmemorygame.renderer=button} or {@code =canvas} forces one for every size.
+     * @param totalCards Number of cards on the board
+     * @param deck Deck the faces are drawn from
+     * @param cardSize Width and height of a card in pixels
+     * @param faceSize Width and height of a card image in pixels
+     * @return A new renderer
+     */
+    static BoardRenderer forBoard(int totalCards, Deck deck, int cardSize, int faceSize) {
+        String choice = System.getProperty("memorygame.renderer", "auto");
+        boolean canvas = choice.equals("canvas") || (!choice.equals("button") && totalCards >= CANVAS_THRESHOLD);
+        return canvas
+                ? new CanvasBoardRenderer(deck, cardSize, faceSize)
+                : new ButtonBoardRenderer(deck, cardSize, faceSize);
+    }
+}
@@ -0,0 +1,125 @@
+import javafx.css.PseudoClass;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Draws the board as a grid of Buttons, one per card.
+ */
+public class ButtonBoardRenderer implements BoardRenderer {
+    // Card states, styled in styles.css as .card-button:flipped and .card-button:matched
+    private static final PseudoClass FLIPPED = PseudoClass.getPseudoClass("flipped");
+    private static final PseudoClass MATCHED = PseudoClass.getPseudoClass("matched");
+    
+    private final Deck deck;
+    private final int cardSize;
+    private final int faceSize;
+    private final GridPane cardGrid = new GridPane();
+    private Game game;
+    private Button[] cardButtons;
+    private ImageView[] cardFaces; // One view per button, showing the shared decoded image when face up
+    
+    /**
+     * Constructor for ButtonBoardRenderer
+     * @param deck Deck the faces are drawn from
+     * @param cardSize Width and height of a card in pixels
+     * @param faceSize Width and height of a card image in pixels
+     */
+    public ButtonBoardRenderer(Deck deck, int cardSize, int faceSize) {
+        this.deck = deck;
+        this.cardSize = cardSize;
+        this.faceSize = faceSize;
+        cardGrid.setAlignment(Pos.CENTER);
+        cardGrid.setHgap(10);
+        cardGrid.setVgap(10);
+        cardGrid.setPadding(new Insets(20));
+    }
+    
+    @Override
+    public Node getNode() {
+        return cardGrid;
+    }
+    
+    @Override
+    public void build(Game game, IntConsumer onCardClick) {
+        this.game = game;
+        GameBoard board = game.getBoard();
+        int totalCards = board.getTotalCards();
+        cardButtons = new Button[totalCards];
+        cardFaces = new ImageView[totalCards];
+        
+        cardGrid.getChildren().clear();
+        for (int i = 0; i < totalCards; i++) {
+            final int index = i;
+            Button cardButton = new Button();
+            cardButton.setPrefSize(cardSize, cardSize);
+            cardButton.getStyleClass().add("card-button");
+            cardButton.setText("?");
+            cardButton.setOnAction(e -> onCardClick.accept(index));
+            
+            cardButtons[index] = cardButton;
+            cardFaces[index] = new ImageView();
+            
+            // Calculate grid position
+            int row = index / board.getCols();
+            int col = index % board.getCols();
+            cardGrid.add(cardButton, col, row);
+        }
+    }
+    
+    @Override
+    public void refresh(int[] cardIndices) {
+        for (int cardIndex : cardIndices) {
+            updateCardDisplay(cardIndex);
+        }
+    }
+    
+    /**
+     * Updates the visual display of a single card
+     * @param cardIndex The index of the card to update
+     */
+    private void updateCardDisplay(int cardIndex) {
+        Card card = game.getBoard().getCard(cardIndex);
+        Button button = cardButtons[cardIndex];
+        
+        if (card.isMatched()) {
+            // Card is matched - show face and disable
+            showFace(cardIndex, card);
+            button.setDisable(true);
+        } else if (card.isFlipped()) {
+            // Card is flipped - show face
+            showFace(cardIndex, card);
+        } else {
+            // Card is face down - show question mark
+            button.setGraphic(null);
+            button.setText("?");
+        }
+        // Pseudo-class changes restyle the button without re-parsing any inline style
+        button.pseudoClassStateChanged(FLIPPED, card.isFlipped() && !card.isMatched());
+        button.pseudoClassStateChanged(MATCHED, card.isMatched());
+    }
+    
+    /**
+     * Shows a card's deck image on its button, or its number if the deck has no images
+     * @param cardIndex The index of the card
+     * @param card The card being shown
+     */
+    private void showFace(int cardIndex, Card card) {
+        Button button = cardButtons[cardIndex];
+        Image face = ImageCache.getShared().getCardFace(deck, card.getValue(), faceSize);
+        if (face == null) {
+            button.setGraphic(null);
+            button.setText(String.valueOf(card.getValue()));
+            return;
+        }
+        cardFaces[cardIndex].setImage(face);
+        button.setGraphic(cardFaces[cardIndex]);
+        button.setText("");
+    }
+}
@@ -0,0 +1,255 @@
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Draws the whole board on one Canvas.
+ * Clicks are hit-tested against the card grid, only cards that changed are repainted, and
+ * flips are animated on the shared {@link GameClock} pulse. Colours and layout match
+ * {@link ButtonBoardRenderer} and the card-button rules in styles.css.
+ */
+public class CanvasBoardRenderer implements BoardRenderer {
+    private static final int GAP = 10;
+    private static final int PADDING = 20;
+    private static final double ARC = 10; // 5px corner radius
+    private static final long FLIP_NANOS = TimeUnit.MILLISECONDS.toNanos(150);
+
+    private static final Color FACE_DOWN = Color.web("#D3D3D3");
+    private static final Color HOVER = Color.web("#bdc3c7");
+    private static final Color FLIPPED = Color.web("#FFE4B5");
+    private static final Color MATCHED = Color.web("#90EE90");
+    private static final Color TEXT = Color.web("#2c3e50");
+    private static final double MATCHED_OPACITY = 0.4; // Same as a disabled Button
+    private static final Font FONT = Font.font("Arial", FontWeight.BOLD, 24);
+
+    private final Deck deck;
+    private final int cardSize;
+    private final int faceSize;
+    private final Canvas canvas = new Canvas();
+    private Game game;
+    private int cols;
+    private int hovered = -1;
+
+    // Flip animation state per card: when it started (0 = idle) and which side is being turned away
+    private long[] flipStart;
+    private boolean[] shownFaceUp; // Side currently (or, mid-animation, finally) shown
+    private int animating;
+    private GameClock.Subscription clockSubscription;
+
+    /**
+     * Constructor for CanvasBoardRenderer
+     * @param deck Deck the faces are drawn from
+     * @param cardSize Width and height of a card in pixels
+     * @param faceSize Width and height of a card image in pixels
+     */
+    public CanvasBoardRenderer(Deck deck, int cardSize, int faceSize) {
+        this.deck = deck;
+        this.cardSize = cardSize;
+        this.faceSize = faceSize;
+    }
+
+    @Override
+    public Node getNode() {
+        return canvas;
+    }
+
+    @Override
+    public void build(Game game, IntConsumer onCardClick) {
+        dispose();
+        this.game = game;
+        GameBoard board = game.getBoard();
+        int totalCards = board.getTotalCards();
+        cols = board.getCols();
+        hovered = -1;
+        flipStart = new long[totalCards];
+        shownFaceUp = new boolean[totalCards];
+        animating = 0;
+
+        canvas.setWidth(PADDING * 2 + cols * cardSize + (cols - 1) * GAP);
+        canvas.setHeight(PADDING * 2 + board.getRows() * cardSize + (board.getRows() - 1) * GAP);
+        canvas.setOnMouseClicked(e -> {
+            int index = hitTest(e);
+            // Matched cards behave like disabled buttons and ignore clicks
+            if (index >= 0 && !game.getBoard().getCard(index).isMatched()) {
+                onCardClick.accept(index);
+            }
+        });
+        canvas.setOnMouseMoved(e -> setHovered(hitTest(e)));
+        canvas.setOnMouseExited(e -> setHovered(-1));
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        for (int i = 0; i < totalCards; i++) {
+            drawCard(gc, i, 1.0);
+        }
+    }
+
+    @Override
+    public void refresh(int[] cardIndices) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        for (int index : cardIndices) {
+            Card card = game.getBoard().getCard(index);
+            boolean faceUp = card.isFlipped() || card.isMatched();
+            if (faceUp != shownFaceUp[index]) {
+                startFlip(index);
+            } else if (flipStart[index] == 0) {
+                drawCard(gc, index, 1.0);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (clockSubscription != null) {
+            clockSubscription.cancel();
+            clockSubscription = null;
+        }
+        animating = 0;
+        canvas.setCursor(Cursor.DEFAULT);
+    }
+
+    /**
+     * Finds the card under the mouse
+     * @return The card index, or -1 if the mouse is over padding or a gap
+     */
+    private int hitTest(MouseEvent e) {
+        double x = e.getX() - PADDING;
+        double y = e.getY() - PADDING;
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int col = (int) (x / (cardSize + GAP));
+        int row = (int) (y / (cardSize + GAP));
+        if (col >= cols || x - col * (cardSize + GAP) > cardSize || y - row * (cardSize + GAP) > cardSize) {
+            return -1;
+        }
+        int index = row * cols + col;
+        return index < game.getBoard().getTotalCards() ? index : -1;
+    }
+
+    private void setHovered(int index) {
+        if (index == hovered) {
+            return;
+        }
+        int previous = hovered;
+        hovered = index;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        if (previous >= 0 && flipStart[previous] == 0) {
+            drawCard(gc, previous, 1.0);
+        }
+        if (index >= 0 && flipStart[index] == 0) {
+            drawCard(gc, index, 1.0);
+        }
+        boolean clickable = index >= 0 && !game.getBoard().getCard(index).isMatched();
+        canvas.setCursor(clickable ? Cursor.HAND : Cursor.DEFAULT);
+    }
+
+    /**
+     * Starts (or restarts) the flip animation of a card
+     */
+    private void startFlip(int index) {
+        if (flipStart[index] == 0) {
+            animating++;
+        }
+        flipStart[index] = -1; // Stamped with the pulse time on the next tick
+        if (clockSubscription == null) {
+            clockSubscription = GameClock.getShared().subscribe(this::onTick);
+        }
+    }
+
+    /**
+     * Advances running flip animations; the card shrinks to a line showing its old side,
+     * then grows back showing its new side
+     */
+    private void onTick(long now) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        for (int i = 0; i < flipStart.length && animating > 0; i++) {
+            if (flipStart[i] == 0) {
+                continue;
+            }
+            if (flipStart[i] < 0) {
+                flipStart[i] = now;
+            }
+            double t = Math.min(1.0, (double) (now - flipStart[i]) / FLIP_NANOS);
+            Card card = game.getBoard().getCard(i);
+            boolean target = card.isFlipped() || card.isMatched();
+            if (t >= 0.5) {
+                shownFaceUp[i] = target; // Past the edge: the new side is showing
+            }
+            drawCard(gc, i, Math.abs(1.0 - 2.0 * t));
+            if (t >= 1.0) {
+                flipStart[i] = 0;
+                animating--;
+            }
+        }
+        if (animating == 0 && clockSubscription != null) {
+            clockSubscription.cancel();
+            clockSubscription = null;
+        }
+    }
+
+    /**
+     * Paints one card in the side stored in {@link #shownFaceUp}
+     * @param scaleX Horizontal scale for the flip animation (1 = flat on the table)
+     */
+    private void drawCard(GraphicsContext gc, int index, double scaleX) {
+        Card card = game.getBoard().getCard(index);
+        boolean faceUp = flipStart[index] == 0 ? (card.isFlipped() || card.isMatched()) : shownFaceUp[index];
+        if (flipStart[index] == 0) {
+            shownFaceUp[index] = faceUp;
+        }
+        boolean matched = faceUp && card.isMatched();
+
+        double x = cellX(index);
+        double y = cellY(index);
+        double width = Math.max(1, cardSize * scaleX);
+        double left = x + (cardSize - width) / 2;
+
+        gc.clearRect(x, y, cardSize, cardSize);
+        gc.save();
+        gc.setGlobalAlpha(matched ? MATCHED_OPACITY : 1.0);
+        Color background;
+        if (matched) {
+            background = MATCHED;
+        } else if (faceUp) {
+            background = FLIPPED;
+        } else {
+            background = index == hovered ? HOVER : FACE_DOWN;
+        }
+        gc.setFill(background);
+        gc.fillRoundRect(left, y, width, cardSize, ARC, ARC);
+
+        Image face = faceUp ? ImageCache.getShared().getCardFace(deck, card.getValue(), faceSize) : null;
+        if (face != null) {
+            double imageWidth = face.getWidth() * scaleX;
+            gc.drawImage(face, x + (cardSize - imageWidth) / 2, y + (cardSize - face.getHeight()) / 2,
+                    imageWidth, face.getHeight());
+        } else if (scaleX > 0.2) {
+            gc.setFill(TEXT);
+            gc.setFont(FONT);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.fillText(faceUp ? String.valueOf(card.getValue()) : "?", x + cardSize / 2.0, y + cardSize / 2.0);
+        }
+        gc.restore();
+    }
+
+    private double cellX(int index) {
+        return PADDING + (index % cols) * (cardSize + GAP);
+    }
+
+    private double cellY(int index) {
+        return PADDING + (index / cols) * (cardSize + GAP);
+    }
+}
@@ -1,44 +1,28 @@
 /**
- * Represents a single card in the memory game.
+ * Read-only view of a single card in the memory game.
  * Each card has a value (the image/pair identifier) and a state (face up or face down).
+ * The state itself lives in the {@link GameBoard}'s arrays; a Card just points at one position.
  */
 public class Card {
-    private int value; // The pair identifier (two cards with the same value form a pair)
-    private boolean isFlipped; // Whether the card is currently face up
-    private boolean isMatched; // Whether this card has been matched with its pair
+    private final GameBoard board;
+    private final int index; // Position of this card on the board
     
     /**
      * Constructor for Card
-     * @param value The pair identifier for this card
+     * @param board The board holding the card's state
+     * @param index The card's position on the board
      */
-    public Card(int value) {
-        this.value = value;
-        this.isFlipped = false;
-        this.isMatched = false;
+    Card(GameBoard board, int index) {
+        this.board = board;
+        this.index = index;
     }
     
     /**
-     * Flips the card to show its face
+     * Gets the position of this card on the board
+     * @return The card's index
      */
-    public void flip() {
-        this.isFlipped = true;
-    }
-    
-    /**
-     * Flips the card back to hide its face
-     */
-    public void flipBack() {
-        if (!isMatched) {
-            this.isFlipped = false;
-        }
-    }
-    
-    /**
-     * Marks this card as matched (permanently face up)
-     */
-    public void setMatched() {
-        this.isMatched = true;
-        this.isFlipped = true;
+    public int getIndex() {
+        return index;
     }
     
     /**
@@ -46,7 +30,7 @@ public class Card {
      * @return The card's value
      */
     public int getValue() {
-        return value;
+        return board.getValue(index);
     }
     
     /**
@@ -54,7 +38,7 @@ public class Card {
      * @return true if face up, false otherwise
      */
     public boolean isFlipped() {
-        return isFlipped;
+        return board.isFlipped(index);
     }
     
     /**
@@ -62,6 +46,6 @@ public class Card {
      * @return true if matched, false otherwise
      */
     public boolean isMatched() {
-        return isMatched;
+        return board.isMatched(index);
     }
 }
@@ -0,0 +1,146 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small bounded pool of JDBC connections.
+ * Connections are opened lazily up to the pool size and reused afterwards,
+ * so a burst of writes only pays the connect/auth handshake once per connection.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final BlockingQueue<Connection> idle; // Open connections not currently in use
+    private final Semaphore permits; // One permit per connection that may be open at once
+    private final long borrowTimeoutMillis;
+    private volatile boolean closed;
+
+    /**
+     * Work to run with a borrowed connection.
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface ConnectionCallback<T> {
+        T doWithConnection(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Constructor for ConnectionPool
+     * @param url JDBC url of the database
+     * @param user Database user (may be null)
+     * @param password Database password (may be null)
+     * @param maxConnections Maximum number of connections open at the same time
+     * @param borrowTimeoutMillis How long a caller waits for a free connection before failing
+     */
+    public ConnectionPool(String url, String user, String password, int maxConnections, long borrowTimeoutMillis) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.idle = new ArrayBlockingQueue<>(maxConnections);
+        this.permits = new Semaphore(maxConnections, true);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * Runs the callback with a pooled connection and returns the connection to the pool afterwards.
+     * A connection whose callback threw is closed instead of reused, since its state is unknown.
+     * @param callback The work to run
+     * @return Whatever the callback returned
+     * @throws SQLException If no connection could be obtained or the callback failed
+     */
+    public <T> T withConnection(ConnectionCallback<T> callback) throws SQLException {
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            T result = callback.doWithConnection(connection);
+            healthy = true;
+            return result;
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    /**
+     * Takes an idle connection or opens a new one, waiting while the pool is exhausted
+     * @return An open connection
+     */
+    private Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out waiting for a pooled connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            Connection connection;
+            while ((connection = idle.poll()) != null) {
+                if (!connection.isClosed()) {
+                    return connection;
+                }
+            }
+            return DriverManager.getConnection(url, user, password);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a borrowed connection back to the pool
+     * @param connection The connection to return
+     * @param healthy false if the connection should be discarded
+     */
+    private void release(Connection connection, boolean healthy) {
+        try {
+            if (healthy && !closed && !connection.isClosed()) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (idle.offer(connection)) {
+                    return;
+                }
+            }
+            closeQuietly(connection);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections. Connections still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // nothing useful to do with a connection we are throwing away
+        }
+    }
+}
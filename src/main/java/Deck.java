@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The card decks shipped in the {@code images/} folder.
+ * Card value {@code n} shows the n-th image of the deck (file names in alphabetical order).
+ */
+public enum Deck {
+    MARIO("Mario (6x6 Easy)"),
+    SONIC("Sonic (8x8 Medium)"),
+    POKEMON("Pokemon (10x10 Hard)");
+    
+    private final String folder;
+    private volatile List<Path> imageFiles; // Listed once, on first use
+    
+    Deck(String folder) {
+        this.folder = folder;
+    }
+    
+    /**
+     * Gets the folder holding the deck images ({@code -Dmemorygame.images} overrides the default {@code images})
+     * @return The images root folder
+     */
+    public static Path imagesDirectory() {
+        return Paths.get(System.getProperty("memorygame.images", "images"));
+    }
+    
+    /**
+     * Gets the image files of this deck
+     * @return PNG files sorted by name (empty if the folder is missing)
+     */
+    public List<Path> getImageFiles() {
+        List<Path> files = imageFiles;
+        if (files == null) {
+            files = listImages(imagesDirectory().resolve(folder));
+            imageFiles = files;
+        }
+        return files;
+    }
+    
+    /**
+     * Gets the image shown for a card value
+     * @param value The card's pair identifier
+     * @return The image file, or null if the deck has no images
+     */
+    public Path getImageFile(int value) {
+        List<Path> files = getImageFiles();
+        return files.isEmpty() ? null : files.get(value % files.size());
+    }
+    
+    private static List<Path> listImages(Path directory) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.png")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("No card images found in " + directory.toAbsolutePath());
+        }
+        Collections.sort(files);
+        return Collections.unmodifiableList(files);
+    }
+}
@@ -0,0 +1,127 @@
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes deck images into the {@link ImageCache} on background workers,
+ * so the game board never waits for PNG decoding on the JavaFX application thread.
+ * Images are decoded per {@link Difficulty}, at the face size that preset draws them at.
+ * Started while the main menu is showing; progress per preset can be bound to a progress indicator.
+ */
+public class DeckPreloader {
+    private final ImageCache cache;
+    private final ExecutorService workers;
+    private final Map<Difficulty, DeckLoad> loads = new EnumMap<>(Difficulty.class);
+    
+    /**
+     * Loading state of one preset's deck
+     */
+    private static final class DeckLoad {
+        final AtomicBoolean started = new AtomicBoolean();
+        final AtomicInteger decoded = new AtomicInteger();
+        final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0); // Only touched on the FX thread
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+    }
+    
+    /**
+     * Constructor for DeckPreloader
+     * @param cache Cache the decoded images go into
+     */
+    public DeckPreloader(ImageCache cache) {
+        this.cache = cache;
+        this.workers = BackgroundExecutors.newBoundedExecutor("deck-preloader",
+                Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+        for (Difficulty difficulty : Difficulty.values()) {
+            loads.put(difficulty, new DeckLoad());
+        }
+    }
+    
+    /**
+     * Starts loading the decks of every preset, the given one first
+     * @param first The preset most likely to be played next
+     */
+    public void preloadAll(Difficulty first) {
+        preload(first);
+        for (Difficulty difficulty : Difficulty.values()) {
+            preload(difficulty);
+        }
+    }
+    
+    /**
+     * Starts loading a preset's deck if that hasn't happened yet
+     * @param difficulty The preset to load
+     */
+    public void preload(Difficulty difficulty) {
+        DeckLoad load = loads.get(difficulty);
+        if (!load.started.compareAndSet(false, true)) {
+            return;
+        }
+        workers.execute(() -> {
+            // Listing the folder is disk I/O too, so it happens here rather than on the caller's thread
+            List<Path> files = difficulty.getDeck().getImageFiles();
+            int faceSize = difficulty.getFaceSize();
+            if (files.isEmpty()) {
+                finish(load, 1.0);
+                return;
+            }
+            for (Path file : files) {
+                workers.execute(() -> {
+                    try {
+                        cache.get(file, faceSize, faceSize);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(); // The board decodes it again (or shows the number) when needed
+                    }
+                    int done = load.decoded.incrementAndGet();
+                    if (done == files.size()) {
+                        finish(load, 1.0);
+                    } else {
+                        double progress = (double) done / files.size();
+                        Platform.runLater(() -> load.progress.set(Math.max(load.progress.get(), progress)));
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Checks whether every image of a preset's deck is decoded
+     * @param difficulty The preset
+     * @return true if the board can be drawn without decoding
+     */
+    public boolean isReady(Difficulty difficulty) {
+        return loads.get(difficulty).ready.isDone();
+    }
+    
+    /**
+     * Gets a future that completes when a preset's deck is ready, starting its load if needed
+     * @param difficulty The preset
+     * @return The future (completed on a worker thread)
+     */
+    public CompletableFuture<Void> whenReady(Difficulty difficulty) {
+        preload(difficulty);
+        return loads.get(difficulty).ready;
+    }
+    
+    /**
+     * Gets the loading progress of a preset's deck, from 0 to 1 (updated on the JavaFX application thread)
+     * @param difficulty The preset
+     * @return The progress property
+     */
+    public ReadOnlyDoubleProperty progressProperty(Difficulty difficulty) {
+        return loads.get(difficulty).progress.getReadOnlyProperty();
+    }
+    
+    private static void finish(DeckLoad load, double progress) {
+        Platform.runLater(() -> load.progress.set(progress));
+        load.ready.complete(null);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * The board presets offered in the main menu: grid size, the deck the faces come from,
+ * and a card size that keeps the board inside the window.
+ * Each preset has its own leaderboard (scores are stored per board size).
+ */
+public enum Difficulty {
+    CLASSIC("Classic 4x4", 4, 4, Deck.MARIO, 100),
+    EASY("Easy 6x6", 6, 6, Deck.MARIO, 64),
+    MEDIUM("Medium 8x8", 8, 8, Deck.SONIC, 48),
+    HARD("Hard 10x10", 10, 10, Deck.POKEMON, 36);
+    
+    private final String label;
+    private final int rows;
+    private final int cols;
+    private final Deck deck;
+    private final int cardSize;
+    
+    Difficulty(String label, int rows, int cols, Deck deck, int cardSize) {
+        this.label = label;
+        this.rows = rows;
+        this.cols = cols;
+        this.deck = deck;
+        this.cardSize = cardSize;
+    }
+    
+    /**
+     * Gets the number of rows
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Gets the number of columns
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+    
+    /**
+     * Gets the deck the card faces are drawn from
+     * @return The deck
+     */
+    public Deck getDeck() {
+        return deck;
+    }
+    
+    /**
+     * Gets the width and height of a card in pixels
+     * @return Card size
+     */
+    public int getCardSize() {
+        return cardSize;
+    }
+    
+    /**
+     * Gets the width and height card images are decoded and drawn at
+     * @return Face size in pixels
+     */
+    public int getFaceSize() {
+        return cardSize * 4 / 5;
+    }
+    
+    /**
+     * Gets the number of cards on the board, which is how scores are grouped into leaderboards
+     * @return Board size
+     */
+    public int getBoardSize() {
+        return rows * cols / 2 * 2;
+    }
+    
+    /**
+     * Finds the preset for a stored board size
+     * @param boardSize Number of cards
+     * @return The preset, or null if no preset uses that size
+     */
+    public static Difficulty forBoardSize(int boardSize) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.getBoardSize() == boardSize) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the name shown in the difficulty selectors
+     * @return The label
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
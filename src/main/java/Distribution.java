@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * Histogram of small non-negative integer samples (moves, points, bonuses).
+ * Not thread-safe: each worker fills its own and they are merged with {@link #combine}.
+ */
+public class Distribution {
+    private long[] counts = new long[64];
+    private long total;
+    private long sum;
+    
+    /**
+     * Records one sample
+     * @param value The sample; negative values are counted as 0
+     */
+    public void add(int value) {
+        int v = Math.max(0, value);
+        if (v >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(v + 1, counts.length * 2));
+        }
+        counts[v]++;
+        total++;
+        sum += v;
+    }
+    
+    /**
+     * Adds every sample of another distribution to this one
+     * @param other The distribution to merge in
+     */
+    public void combine(Distribution other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+    }
+    
+    /**
+     * Gets the number of samples
+     * @return Sample count
+     */
+    public long getCount() {
+        return total;
+    }
+    
+    /**
+     * Gets the mean of the samples
+     * @return The mean, or 0 without samples
+     */
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+    
+    /**
+     * Gets the smallest value below which the given share of samples fall
+     * @param fraction Between 0 and 1 (0.5 = median)
+     * @return The percentile value, or 0 without samples
+     */
+    public int getPercentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Gets the smallest sample
+     * @return The minimum, or 0 without samples
+     */
+    public int getMin() {
+        return getPercentile(0);
+    }
+    
+    /**
+     * Gets the largest sample
+     * @return The maximum, or 0 without samples
+     */
+    public int getMax() {
+        return getPercentile(1);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("mean %8.1f  min %5d  p50 %5d  p90 %5d  p99 %5d  max %5d",
+                getMean(), getMin(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax());
+    }
+}
@@ -1,26 +1,53 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
  * Main game logic class that manages game state, score, and match detection.
  * Tracks moves, time, and handles the core gameplay mechanics.
+ * Time comes from an injectable monotonic clock so games can also be played headless, e.g. by
+ * {@link SimulationEngine}, and the board layout from a seed, so any game can be reproduced exactly.
+ * <p>
+ * Game is thread-safe without locks: the cards, score and moves live in one immutable {@link GameState},
+ * and every flip, match check and flip-back builds the next snapshot and installs it with a single
+ * compare-and-set, retrying if another thread got there first. Concurrent calls can therefore never lose
+ * an update, flip a third card or match the same pair twice.
  */
 public class Game {
-    private GameBoard board;
-    private int score;
-    private int moves;
-    private long startTime;
-    private List<Card> flippedCards; // Tracks currently flipped cards (max 2)
-    private boolean isGameOver;
+    private final GameBoard board;
+    private final long seed; // Seed the board was shuffled with
+    private final LongSupplier clock; // Monotonic time in nanoseconds, like System.nanoTime()
+    private final long startTime;
+    private volatile GameEventListener listener; // Told about every flip, match check and flip-back (may be null)
     
     //Constructor for Game
     public Game(int rows, int cols) {
-        this.board = new GameBoard(rows, cols);
-        this.score = 0;
-        this.moves = 0;
-        this.flippedCards = new ArrayList<>();
-        this.isGameOver = false;
-        this.startTime = System.currentTimeMillis();
+        this(rows, cols, ThreadLocalRandom.current().nextLong());
+    }
+    
+    /**
+     * Constructor for Game with a reproducible board layout
+     * @param rows Number of rows on the board
+     * @param cols Number of columns on the board
+     * @param seed Seed for the board shuffle
+     */
+    public Game(int rows, int cols, long seed) {
+        this(rows, cols, seed, System::nanoTime);
+    }
+    
+    /**
+     * Constructor for Game with a reproducible board layout and a custom time source
+     * @param rows Number of rows on the board
+     * @param cols Number of columns on the board
+     * @param seed Seed for the board shuffle
+     * @param clock Supplies monotonic time in nanoseconds (only differences are used)
+     */
+    public Game(int rows, int cols, long seed, LongSupplier clock) {
+        this.seed = seed;
+        this.clock = clock;
+        this.board = new GameBoard(rows, cols, new SplittableRandom(seed));
+        this.startTime = clock.getAsLong();
     }
     
     /**
@@ -29,31 +56,23 @@ public class Game {
      * @return true if the card was successfully flipped, false otherwise
      */
     public boolean flipCard(int cardIndex) {
-        if (isGameOver) {
+        if (cardIndex < 0 || cardIndex >= board.getTotalCards()) {
             return false;
         }
+        GameState current;
+        do {
+            current = board.getState();
+            // Can't flip once the game is over, if the card is already face up, or if 2 cards are flipped
+            if (current.isGameOver() || current.isFlipped(cardIndex) || current.getFlippedCardCount() >= 2) {
+                return false;
+            }
+            // Flipping the second card counts as a move (match checking happens after delay)
+        } while (!board.compareAndSetState(current, current.flip(cardIndex)));
         
-        Card card = board.getCard(cardIndex);
-        
-        // Can't flip if card is already flipped or matched
-        if (card == null || card.isFlipped() || card.isMatched()) {
-            return false;
-        }
-        
-        // Can't flip more than 2 cards at once
-        if (flippedCards.size() >= 2) {
-            return false;
-        }
-        
-        // Flip the card
-        card.flip();
-        flippedCards.add(card);
-        
-        // If 2 cards are flipped, increment moves (match checking happens after delay)
-        if (flippedCards.size() == 2) {
-            moves++;
+        GameEventListener listener = this.listener;
+        if (listener != null) {
+            listener.onFlip(cardIndex, clock.getAsLong() - startTime);
         }
-        
         return true;
     }
     
@@ -64,44 +83,88 @@ public class Game {
      * @return true if the cards matched, false otherwise
      */
     public boolean checkMatch() {
-        if (flippedCards.size() != 2) {
-            return false;
-        }
-        
-        Card card1 = flippedCards.get(0);
-        Card card2 = flippedCards.get(1);
-        
-        if (card1.getValue() == card2.getValue()) {
-            // Match found!
-            card1.setMatched();
-            card2.setMatched();
-            score += 100; // Bonus points for a match
-            flippedCards.clear();
+        GameState current;
+        GameState next;
+        long elapsed;
+        do {
+            current = board.getState();
+            if (current.getFlippedCardCount() != 2) {
+                return false;
+            }
+            elapsed = clock.getAsLong() - startTime;
+            if (board.getValue(current.getFlippedCard(0)) != board.getValue(current.getFlippedCard(1))) {
+                // No match - cards will be flipped back by the controller after a delay
+                GameEventListener listener = this.listener;
+                if (listener != null) {
+                    listener.onCheck(false, elapsed);
+                }
+                return false;
+            }
             
+            // Match found! Bonus points for a match
+            next = current.match(100);
             // Check if game is over
-            if (board.allCardsMatched()) {
-                isGameOver = true;
+            if (next.allCardsMatched()) {
                 // Calculate final score based on time and moves
-                long elapsedTime = System.currentTimeMillis() - startTime;
-                int timeBonus = Math.max(0, 1000 - (int)(elapsedTime / 1000)); // Time bonus decreases over time
-                int movesBonus = Math.max(0, 500 - (moves * 10)); // Fewer moves = more bonus
-                score += timeBonus + movesBonus;
+                // Time bonus decreases over time
+                int timeBonus = Math.max(0, 1000 - (int) TimeUnit.NANOSECONDS.toSeconds(elapsed));
+                int movesBonus = Math.max(0, 500 - (next.getMoves() * 10)); // Fewer moves = more bonus
+                next = next.finish(startTime + elapsed, timeBonus, movesBonus);
             }
-            return true;
-        } else {
-            // No match - cards will be flipped back by the controller after a delay
-            return false;
+        } while (!board.compareAndSetState(current, next));
+        
+        GameEventListener listener = this.listener;
+        if (listener != null) {
+            listener.onCheck(true, elapsed);
         }
+        return true;
     }
     
     /**
      * Flips back the currently flipped cards (called when no match is found)
+     * @return Number of cards turned face down (0 if none were face up)
      */
-    public void flipBackCards() {
-        for (Card card : flippedCards) {
-            card.flipBack();
+    public int flipBackCards() {
+        GameState current;
+        do {
+            current = board.getState();
+            if (current.getFlippedCardCount() == 0) {
+                return 0;
+            }
+        } while (!board.compareAndSetState(current, current.flipBack()));
+        
+        GameEventListener listener = this.listener;
+        if (listener != null) {
+            listener.onFlipBack(clock.getAsLong() - startTime);
         }
-        flippedCards.clear();
+        return current.getFlippedCardCount();
+    }
+    
+    /**
+     * Sets the listener told about every flip, match check and flip-back from now on.
+     * It is called on the thread that made the change, after the change took effect; when several
+     * threads play the same game, calls for changes made at nearly the same time may arrive out of order.
+     * @param listener The listener, or null for none
+     */
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Gets the cards whose state changed in the last successful
+     * {@link #flipCard}, {@link #checkMatch} or {@link #flipBackCards}
+     * @return Indices of the changed cards (empty if nothing changed yet)
+     */
+    public int[] getChangedCards() {
+        return board.getState().getChangedCards();
+    }
+    
+    /**
+     * Gets a consistent snapshot of the whole game state; use it to read several values that must belong together
+     * @return The current snapshot
+     */
+    public GameState getState() {
+        return board.getState();
     }
     
     /**
@@ -109,7 +172,7 @@ public class Game {
      * @return Current score
      */
     public int getScore() {
-        return score;
+        return board.getState().getScore();
     }
     
     /**
@@ -117,15 +180,41 @@ public class Game {
      * @return Number of moves
      */
     public int getMoves() {
-        return moves;
+        return board.getState().getMoves();
     }
     
     /**
-     * Gets the elapsed time in seconds
+     * Gets the elapsed time in seconds; stops counting when the game is over
      * @return Elapsed time in seconds
      */
     public long getElapsedTime() {
-        return (System.currentTimeMillis() - startTime) / 1000;
+        GameState state = board.getState();
+        long now = state.isGameOver() ? state.getEndTime() : clock.getAsLong();
+        return TimeUnit.NANOSECONDS.toSeconds(now - startTime);
+    }
+    
+    /**
+     * Gets the time bonus added to the score when the game ended
+     * @return Time bonus, or 0 while the game is still running
+     */
+    public int getTimeBonus() {
+        return board.getState().getTimeBonus();
+    }
+    
+    /**
+     * Gets the moves bonus added to the score when the game ended
+     * @return Moves bonus, or 0 while the game is still running
+     */
+    public int getMovesBonus() {
+        return board.getState().getMovesBonus();
+    }
+    
+    /**
+     * Gets the seed the board was shuffled with; a new Game with the same seed and size has the same layout
+     * @return The board seed
+     */
+    public long getSeed() {
+        return seed;
     }
     
     /**
@@ -141,7 +230,7 @@ public class Game {
      * @return true if game is over, false otherwise
      */
     public boolean isGameOver() {
-        return isGameOver;
+        return board.getState().isGameOver();
     }
     
     /**
@@ -149,6 +238,6 @@ public class Game {
      * @return Number of flipped cards (0, 1, or 2)
      */
     public int getFlippedCardCount() {
-        return flippedCards.size();
+        return board.getState().getFlippedCardCount();
     }
 }
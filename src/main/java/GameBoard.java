@@ -1,64 +1,127 @@
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
 
 /**
  * Manages the game board - a grid of cards arranged in pairs.
  * Handles card shuffling and board initialization.
+ * The layout is a fixed int array of card values; which cards are face up or matched lives in an
+ * immutable {@link GameState} that {@link Game} replaces atomically, so the board can be read from
+ * any thread while a game is played. {@link #getCard(int)} hands out lightweight {@link Card} views for the UI.
  */
 public class GameBoard {
-    private List<Card> cards;
-    private int rows;
-    private int cols;
+    private final int[] values; // Pair identifier of each card
+    private final AtomicReference<GameState> state; // Current snapshot, swapped by Game
+    private final int rows;
+    private final int cols;
     
     /**
-     * Constructor for GameBoard
+     * Constructor for GameBoard with a random layout
      * @param rows Number of rows in the grid
      * @param cols Number of columns in the grid
      */
     public GameBoard(int rows, int cols) {
+        this(rows, cols, new SplittableRandom());
+    }
+    
+    /**
+     * Constructor for GameBoard. The same generator state always produces the same layout.
+     * @param rows Number of rows in the grid
+     * @param cols Number of columns in the grid
+     * @param random Random source for the shuffle
+     */
+    public GameBoard(int rows, int cols, RandomGenerator random) {
         this.rows = rows;
         this.cols = cols;
-        this.cards = new ArrayList<>();
-        initializeBoard();
+        int pairs = rows * cols / 2;
+        this.values = new int[pairs * 2];
+        this.state = new AtomicReference<>(GameState.initial(values.length));
+        initializeBoard(random);
     }
     
     /**
      * Initializes the board with pairs of cards and shuffles them.
      * Creates (rows * cols / 2) pairs of cards.
+     * @param random Random source for the shuffle
      */
-    private void initializeBoard() {
-        int totalCards = rows * cols;
-        int pairs = totalCards / 2;
-        
+    private void initializeBoard(RandomGenerator random) {
         // Create pairs of cards
-        for (int i = 0; i < pairs; i++) {
-            cards.add(new Card(i));
-            cards.add(new Card(i));
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 2;
         }
         
-        // Shuffle the cards randomly
-        Collections.shuffle(cards);
+        // Shuffle the cards randomly (Fisher-Yates)
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
     }
     
     /**
      * Gets a card at a specific index
-     * @param index The position in the cards list
-     * @return The card at that index
+     * @param index The position on the board
+     * @return A view of the card at that index, or null if the index is out of range
      */
     public Card getCard(int index) {
-        if (index >= 0 && index < cards.size()) {
-            return cards.get(index);
+        if (index >= 0 && index < values.length) {
+            return new Card(this, index);
         }
         return null;
     }
     
+    /**
+     * Gets the value (pair identifier) of a card
+     * @param index The position on the board
+     * @return The card's value
+     */
+    public int getValue(int index) {
+        return values[index];
+    }
+    
+    /**
+     * Checks if a card is face up
+     * @param index The position on the board
+     * @return true if face up
+     */
+    public boolean isFlipped(int index) {
+        return state.get().isFlipped(index);
+    }
+    
+    /**
+     * Checks if a card has been matched
+     * @param index The position on the board
+     * @return true if matched
+     */
+    public boolean isMatched(int index) {
+        return state.get().isMatched(index);
+    }
+    
+    /**
+     * Gets the current snapshot of the card states
+     * @return The snapshot
+     */
+    GameState getState() {
+        return state.get();
+    }
+    
+    /**
+     * Replaces the snapshot if nobody else has replaced it in the meantime
+     * @param expected The snapshot the change was based on
+     * @param updated The new snapshot
+     * @return true if the snapshot was replaced
+     */
+    boolean compareAndSetState(GameState expected, GameState updated) {
+        return state.compareAndSet(expected, updated);
+    }
+    
     /**
      * Gets the total number of cards on the board
      * @return Total number of cards
      */
     public int getTotalCards() {
-        return cards.size();
+        return values.length;
     }
     
     /**
@@ -77,16 +140,19 @@ public class GameBoard {
         return cols;
     }
     
+    /**
+     * Gets the number of pairs matched so far
+     * @return Matched pair count
+     */
+    public int getMatchedPairs() {
+        return state.get().getMatchedPairs();
+    }
+    
     /**
      * Checks if all cards have been matched (win condition)
      * @return true if all cards are matched, false otherwise
      */
     public boolean allCardsMatched() {
-        for (Card card : cards) {
-            if (!card.isMatched()) {
-                return false;
-            }
-        }
-        return true;
+        return state.get().allCardsMatched();
     }
 }
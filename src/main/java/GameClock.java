@@ -0,0 +1,82 @@
+import javafx.animation.AnimationTimer;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One clock for every game on screen, driven by the JavaFX pulse.
+ * Listeners are called on the JavaFX application thread once per frame while at least one is subscribed;
+ * with no subscribers the underlying {@link AnimationTimer} is stopped.
+ * Subscribe and cancel on the JavaFX application thread.
+ */
+public final class GameClock {
+    private static final GameClock SHARED = new GameClock();
+    
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            for (Listener listener : listeners) {
+                listener.onTick(now);
+            }
+        }
+    };
+    
+    /**
+     * Receives clock ticks
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once per frame
+         * @param nowNanos Timestamp of the current pulse, in nanoseconds
+         */
+        void onTick(long nowNanos);
+    }
+    
+    /**
+     * Handle for removing a listener again
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        /**
+         * Stops the listener from receiving ticks. Safe to call more than once.
+         */
+        void cancel();
+    }
+    
+    private GameClock() {
+    }
+    
+    /**
+     * Gets the clock shared by the whole application
+     * @return The shared GameClock
+     */
+    public static GameClock getShared() {
+        return SHARED;
+    }
+    
+    /**
+     * Adds a listener, starting the clock if it was idle
+     * @param listener The listener to call every frame
+     * @return The subscription to cancel when the listener is no longer needed
+     */
+    public Subscription subscribe(Listener listener) {
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            timer.start();
+        }
+        return () -> {
+            if (listeners.remove(listener) && listeners.isEmpty()) {
+                timer.stop();
+            }
+        };
+    }
+    
+    /**
+     * Gets the number of current listeners
+     * @return Listener count
+     */
+    public int getListenerCount() {
+        return listeners.size();
+    }
+}
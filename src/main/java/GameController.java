@@ -1,13 +1,12 @@
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
-import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextInputDialog;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.VBox;
+import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 
 import java.net.URL;
@@ -21,12 +20,12 @@ import java.util.ResourceBundle;
  * - Checking matches
  * - Score calculation
  * - Detecting win condition
- * - Triggering POST to backend (when implemented)
+ * - Submitting the final score through {@link ScoreSubmissionService}
  */
-public class GameController implements Initializable {
+public class GameController implements Initializable, SceneLifecycle {
     
     @FXML
-    private GridPane cardGrid;
+    private StackPane boardContainer;
     
     @FXML
     private Label scoreLabel;
@@ -41,24 +40,31 @@ public class GameController implements Initializable {
     private Button backButton;
     
     private Game game;
+    private ReplayWriter replay; // Records the current game so its score can be verified
     private SceneManager sceneManager;
-    private Button[] cardButtons;
+    private BoardRenderer renderer; // Draws the board; chosen per board size
     private PauseTransition pauseTransition;
-    private Thread timeThread;
-    private boolean timeThreadRunning;
-    
-    // Default board size (4x4 = 16 cards = 8 pairs)
-    private static final int ROWS = 4;
-    private static final int COLS = 4;
+    private GameClock.Subscription clockSubscription; // Set while the timer label is being updated
+    private long shownSeconds = -1; // Seconds currently shown on the timer label
+    private Difficulty difficulty; // Board size and deck of the current game
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        // Initialize the game with default board size
-        game = new Game(ROWS, COLS);
         sceneManager = SceneManager.getInstance();
+    }
+    
+    /**
+     * Starts a fresh game every time the view is shown (the view itself is reused)
+     */
+    @Override
+    public void onShow() {
+        // Initialize the game with the preset picked in the main menu
+        difficulty = sceneManager.getDifficulty();
+        game = new Game(difficulty.getRows(), difficulty.getCols());
+        replay = ReplayWriter.record(game);
         
-        // Create card buttons
-        setupCardGrid();
+        // Create the board
+        setupBoard();
         
         // Start the timer
         startTimer();
@@ -67,6 +73,21 @@ public class GameController implements Initializable {
         updateDisplay();
     }
     
+    /**
+     * Stops the timer and any pending match check when leaving the view
+     */
+    @Override
+    public void onHide() {
+        stopTimer();
+        if (renderer != null) {
+            renderer.dispose();
+        }
+        if (pauseTransition != null) {
+            pauseTransition.stop();
+            pauseTransition = null;
+        }
+    }
+    
     /**
      * Sets the SceneManager instance (called by SceneManager after loading)
      * @param sceneManager The SceneManager instance
@@ -76,37 +97,20 @@ public class GameController implements Initializable {
     }
     
     /**
-     * Sets up the grid of card buttons based on the game board
+     * Creates the board renderer for the current game and puts it in the scene
      */
-    private void setupCardGrid() {
-        GameBoard board = game.getBoard();
-        int totalCards = board.getTotalCards();
-        cardButtons = new Button[totalCards];
-        
-        cardGrid.getChildren().clear();
-        cardGrid.setHgap(10);
-        cardGrid.setVgap(10);
-        cardGrid.setPadding(new Insets(20));
-        
-        for (int i = 0; i < totalCards; i++) {
-            final int index = i;
-            Button cardButton = new Button();
-            cardButton.setPrefSize(100, 100);
-            cardButton.setStyle("-fx-font-size: 24px;");
-            cardButton.setText("?");
-            cardButton.setOnAction(e -> handleCardClick(index));
-            
-            cardButtons[index] = cardButton;
-            
-            // Calculate grid position
-            int row = index / board.getCols();
-            int col = index % board.getCols();
-            cardGrid.add(cardButton, col, row);
+    private void setupBoard() {
+        if (renderer != null) {
+            renderer.dispose();
         }
+        renderer = BoardRenderer.forBoard(game.getBoard().getTotalCards(), difficulty.getDeck(),
+                difficulty.getCardSize(), difficulty.getFaceSize());
+        renderer.build(game, this::handleCardClick);
+        boardContainer.getChildren().setAll(renderer.getNode());
     }
     
     /**
-     * Handles when a card button is clicked
+     * Handles when a card is clicked
      * @param cardIndex The index of the clicked card
      */
     private void handleCardClick(int cardIndex) {
@@ -118,7 +122,7 @@ public class GameController implements Initializable {
         boolean flipped = game.flipCard(cardIndex);
         
         if (flipped) {
-            updateCardDisplay(cardIndex);
+            renderer.refresh(game.getChangedCards());
             updateDisplay();
             
             // If 2 cards are now flipped, check for match after a delay
@@ -145,12 +149,8 @@ public class GameController implements Initializable {
             game.flipBackCards();
         }
         
-        // Update all card displays
-        GameBoard board = game.getBoard();
-        int totalCards = board.getTotalCards();
-        for (int i = 0; i < totalCards; i++) {
-            updateCardDisplay(i);
-        }
+        // Only the two cards involved need redrawing
+        renderer.refresh(game.getChangedCards());
         
         updateDisplay();
         
@@ -160,37 +160,24 @@ public class GameController implements Initializable {
         }
     }
     
-    /**
-     * Updates the visual display of a single card
-     * @param cardIndex The index of the card to update
-     */
-    private void updateCardDisplay(int cardIndex) {
-        Card card = game.getBoard().getCard(cardIndex);
-        Button button = cardButtons[cardIndex];
-        
-        if (card.isMatched()) {
-            // Card is matched - show value and disable
-            button.setText(String.valueOf(card.getValue()));
-            button.setDisable(true);
-            button.setStyle("-fx-background-color: #90EE90; -fx-font-size: 24px;");
-        } else if (card.isFlipped()) {
-            // Card is flipped - show value
-            button.setText(String.valueOf(card.getValue()));
-            button.setStyle("-fx-background-color: #FFE4B5; -fx-font-size: 24px;");
-        } else {
-            // Card is face down - show question mark
-            button.setText("?");
-            button.setStyle("-fx-background-color: #D3D3D3; -fx-font-size: 24px;");
-        }
-    }
-    
     /**
      * Updates the score, moves, and time labels
      */
     private void updateDisplay() {
         scoreLabel.setText("Score: " + game.getScore());
         movesLabel.setText("Moves: " + game.getMoves());
-        timeLabel.setText("Time: " + formatTime(game.getElapsedTime()));
+        updateTimeLabel();
+    }
+    
+    /**
+     * Updates the time label, but only when the displayed second has changed
+     */
+    private void updateTimeLabel() {
+        long seconds = game.getElapsedTime();
+        if (seconds != shownSeconds) {
+            shownSeconds = seconds;
+            timeLabel.setText("Time: " + formatTime(seconds));
+        }
     }
     
     /**
@@ -205,33 +192,35 @@ public class GameController implements Initializable {
     }
     
     /**
-     * Starts a background thread to update the timer every second
+     * Subscribes the time label to the shared game clock
      */
     private void startTimer() {
-        timeThreadRunning = true;
-        timeThread = new Thread(() -> {
-            while (timeThreadRunning && !game.isGameOver()) {
-                try {
-                    Thread.sleep(1000);
-                    javafx.application.Platform.runLater(() -> {
-                        if (!game.isGameOver()) {
-                            updateDisplay();
-                        }
-                    });
-                } catch (InterruptedException e) {
-                    break;
-                }
+        stopTimer();
+        shownSeconds = -1;
+        clockSubscription = GameClock.getShared().subscribe(now -> {
+            if (game.isGameOver()) {
+                stopTimer();
+            } else {
+                updateTimeLabel();
             }
         });
-        timeThread.setDaemon(true);
-        timeThread.start();
+    }
+    
+    /**
+     * Unsubscribes from the game clock (safe to call when not subscribed)
+     */
+    private void stopTimer() {
+        if (clockSubscription != null) {
+            clockSubscription.cancel();
+            clockSubscription = null;
+        }
     }
     
     /**
      * Handles the game over state - shows dialog and prompts for player name
      */
     private void handleGameOver() {
-        timeThreadRunning = false;
+        stopTimer();
         
         // Show game over alert
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -248,32 +237,56 @@ public class GameController implements Initializable {
         dialog.setHeaderText("Enter your name to save your score:");
         dialog.setContentText("Name:");
         
+        String submissionId = ScoreSubmissionService.newSubmissionId(); // One per finished game
+        byte[] recorded = replay.toByteArray();
         dialog.showAndWait().ifPresent(name -> {
             if (!name.trim().isEmpty()) {
                 // Create score object
                 Score score = new Score(name.trim(), game.getScore(), 
-                                      game.getMoves(), game.getElapsedTime());
-                
-                // TODO: Send score to API when HttpClientService is implemented
-                // HttpClientService.getInstance().submitScore(score);
+                                      game.getMoves(), game.getElapsedTime(),
+                                      game.getBoard().getTotalCards(), System.currentTimeMillis(), submissionId);
                 
-                // For now, just show a message
-                Alert savedAlert = new Alert(Alert.AlertType.INFORMATION);
-                savedAlert.setTitle("Score Saved");
-                savedAlert.setHeaderText("Your score has been saved!");
-                savedAlert.setContentText("Name: " + score.getPlayerName() + "\n" +
-                                        "Score: " + score.getScore());
-                savedAlert.showAndWait();
+                // Submitted in the background; the dialog appears once the first delivery attempt is done
+                sceneManager.getScoreSubmissionService().submit(submissionId, score, recorded)
+                        .thenAccept(outcome -> Platform.runLater(() -> showSubmissionResult(score, outcome)));
             }
         });
     }
     
+    /**
+     * Tells the player what happened to their score
+     * @param score The submitted score
+     * @param outcome Result of the first delivery attempt
+     */
+    private void showSubmissionResult(Score score, ScoreSubmissionService.Outcome outcome) {
+        Alert savedAlert = new Alert(Alert.AlertType.INFORMATION);
+        switch (outcome) {
+            case SAVED:
+                savedAlert.setTitle("Score Saved");
+                savedAlert.setHeaderText("Your score has been saved!");
+                break;
+            case QUEUED:
+                savedAlert.setTitle("Score Queued");
+                savedAlert.setHeaderText("The leaderboard is unreachable right now.\n"
+                        + "Your score is stored on this machine and will be sent automatically.");
+                break;
+            default:
+                savedAlert.setAlertType(Alert.AlertType.WARNING);
+                savedAlert.setTitle("Score Not Saved");
+                savedAlert.setHeaderText("Your score could not be saved yet.\n"
+                        + "It will keep being retried while the game is open.");
+                break;
+        }
+        savedAlert.setContentText("Name: " + score.getPlayerName() + "\n" +
+                                "Score: " + score.getScore());
+        savedAlert.show();
+    }
+    
     /**
      * Handles the back button click - returns to main menu
      */
     @FXML
     private void handleBackButton() {
-        timeThreadRunning = false;
         sceneManager.showMainMenu();
     }
 }
@@ -0,0 +1,26 @@
+/**
+ * Receives every state change of a {@link Game} as it happens, e.g. to record a replay.
+ * Times are nanoseconds since the game started, measured on the game's clock.
+ */
+public interface GameEventListener {
+    
+    /**
+     * A card was turned face up
+     * @param cardIndex The card
+     * @param elapsedNanos Time since the game started
+     */
+    void onFlip(int cardIndex, long elapsedNanos);
+    
+    /**
+     * The two face-up cards were compared
+     * @param matched Whether they formed a pair
+     * @param elapsedNanos Time since the game started
+     */
+    void onCheck(boolean matched, long elapsedNanos);
+    
+    /**
+     * The unmatched face-up cards were turned back down
+     * @param elapsedNanos Time since the game started
+     */
+    void onFlipBack(long elapsedNanos);
+}
@@ -0,0 +1,323 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless server hosting many concurrent {@link Game} sessions, so kiosks can be thin renderers.
+ * <p>
+ * Protocol (JSON over local HTTP):
+ * <pre>
+ * POST   /games?difficulty=EASY         start a session (or rows=..&amp;cols=..; optional seed=..)
+ * GET    /games/{id}                    current state
+ * POST   /games/{id}/flip?card={index}  turn a card face up
+ * POST   /games/{id}/check              compare the two face-up cards; turns them back down if they differ
+ * DELETE /games/{id}                    end the session
+ * GET    /stats                         number of sessions
+ * </pre>
+ * Every state reply lists the cards as their value when face up and -1 when face down,
+ * plus the indices of the matched cards.
+ * <p>
+ * Each session is an actor: requests for it are queued in its mailbox and run one at a time on a small
+ * shared worker pool, so a Game is never touched by two threads at once and no locks are needed.
+ * Request threads only enqueue and return; the reply is sent by the worker. Idle sessions expire.
+ */
+public class GameServer {
+    private static final int DEFAULT_PORT = 8090;
+    private static final int MAX_SESSIONS = 100_000;
+    private static final int MAX_CARDS = 400;
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(30);
+    
+    private final HttpServer server;
+    private final ExecutorService workers; // Runs session mailboxes
+    private final ExecutorService acceptors; // Parses requests and hands them to sessions
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    
+    /**
+     * One game and its mailbox. Only the worker currently draining the mailbox touches the game.
+     */
+    private final class Session {
+        final String id;
+        final Game game;
+        final ConcurrentLinkedQueue<Message> mailbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger(); // Messages in the mailbox; 0 means no drain is scheduled
+        volatile long lastAccess = System.nanoTime();
+        
+        Session(String id, Game game) {
+            this.id = id;
+            this.game = game;
+        }
+        
+        /**
+         * Queues a message; the first message into an empty mailbox schedules a drain
+         * @param exchange The request the message answers
+         * @param action Handles the request and sends the reply
+         */
+        void tell(HttpExchange exchange, Runnable action) {
+            mailbox.add(new Message(exchange, action));
+            if (queued.getAndIncrement() == 0) {
+                workers.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            boolean more = true;
+            try {
+                do {
+                    Message message = mailbox.poll();
+                    try {
+                        message.action.run();
+                    } catch (RuntimeException e) {
+                        // Answer the request so the client isn't left waiting, then carry on with the mailbox
+                        e.printStackTrace();
+                        try {
+                            JsonHttp.send(message.exchange, 500, JsonHttp.error("Internal error"));
+                        } catch (IOException | RuntimeException ignored) {
+                            // The reply was already started, or the client went away
+                        }
+                    }
+                    more = queued.decrementAndGet() > 0;
+                } while (more);
+            } finally {
+                if (more) {
+                    // An Error escaped a message: count it as handled and let a fresh drain take the rest,
+                    // or the mailbox would never be drained again
+                    if (queued.decrementAndGet() > 0) {
+                        workers.execute(this::drain);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * A request waiting in a session's mailbox
+     */
+    private static final class Message {
+        final HttpExchange exchange;
+        final Runnable action;
+        
+        Message(HttpExchange exchange, Runnable action) {
+            this.exchange = exchange;
+            this.action = action;
+        }
+    }
+    
+    /**
+     * Constructor for GameServer; call {@link #start()} to accept requests
+     * @param port Port to listen on (the server binds to localhost only)
+     * @throws IOException If the port can't be bound
+     */
+    public GameServer(int port) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.workers = BackgroundExecutors.newBoundedExecutor("game-session", cores);
+        this.acceptors = BackgroundExecutors.newBoundedExecutor("game-http", Math.max(2, cores / 2));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(BackgroundExecutors.newThreadFactory("game-sweeper"));
+        this.server = JsonHttp.createLocalServer(port);
+        server.setExecutor(acceptors);
+        server.createContext("/games", this::handleGames);
+        server.createContext("/stats", exchange -> JsonHttp.send(exchange, 200, "{\"sessions\":" + sessions.size() + "}"));
+    }
+    
+    /**
+     * Starts accepting requests and expiring idle sessions
+     */
+    public void start() {
+        server.start();
+        sweeper.scheduleWithFixedDelay(this::expireIdleSessions, 1, 1, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Stops accepting requests and drops every session
+     */
+    public void stop() {
+        server.stop(1);
+        sweeper.shutdownNow();
+        acceptors.shutdown();
+        workers.shutdown();
+        sessions.clear();
+    }
+    
+    /**
+     * Gets the port the server listens on
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Gets the number of live sessions
+     * @return Session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    private void handleGames(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String[] path = uri.getPath().split("/"); // "", "games", id, action
+        String method = exchange.getRequestMethod();
+        Map<String, String> query = JsonHttp.parseQuery(uri.getRawQuery());
+        
+        if (path.length == 2) {
+            if (method.equals("POST")) {
+                createSession(exchange, query);
+            } else {
+                JsonHttp.send(exchange, 405, JsonHttp.error("Use POST to start a game"));
+            }
+            return;
+        }
+        Session session = sessions.get(path[2]);
+        if (session == null) {
+            JsonHttp.send(exchange, 404, JsonHttp.error("No such session"));
+            return;
+        }
+        String action = path.length > 3 ? path[3] : "";
+        
+        if (action.isEmpty() && method.equals("GET")) {
+            session.tell(exchange, () -> reply(exchange, session, 200, null));
+        } else if (action.isEmpty() && method.equals("DELETE")) {
+            sessions.remove(session.id);
+            // A 204 makes the JDK server drop the kept-alive connection, so reply with a tiny body
+            JsonHttp.send(exchange, 200, "{\"ended\":true}");
+        } else if (action.equals("flip") && method.equals("POST")) {
+            int card = parseInt(query.get("card"), -1);
+            session.tell(exchange, () -> {
+                boolean flipped = session.game.flipCard(card);
+                reply(exchange, session, flipped ? 200 : 409, "\"flipped\":" + flipped);
+            });
+        } else if (action.equals("check") && method.equals("POST")) {
+            session.tell(exchange, () -> {
+                if (session.game.getFlippedCardCount() != 2) {
+                    reply(exchange, session, 409, "\"match\":false");
+                    return;
+                }
+                boolean matched = session.game.checkMatch();
+                if (!matched) {
+                    session.game.flipBackCards();
+                }
+                reply(exchange, session, 200, "\"match\":" + matched);
+            });
+        } else {
+            JsonHttp.send(exchange, 404, JsonHttp.error("Unknown request"));
+        }
+    }
+    
+    private void createSession(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int rows;
+        int cols;
+        String preset = query.get("difficulty");
+        if (preset != null) {
+            Difficulty difficulty;
+            try {
+                difficulty = Difficulty.valueOf(preset.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                JsonHttp.send(exchange, 400, JsonHttp.error("Unknown difficulty"));
+                return;
+            }
+            rows = difficulty.getRows();
+            cols = difficulty.getCols();
+        } else {
+            rows = parseInt(query.get("rows"), 4);
+            cols = parseInt(query.get("cols"), 4);
+        }
+        if (rows <= 0 || cols <= 0 || rows * cols < 2 || rows * cols > MAX_CARDS) {
+            JsonHttp.send(exchange, 400, JsonHttp.error("Invalid board size"));
+            return;
+        }
+        if (sessions.size() >= MAX_SESSIONS) {
+            JsonHttp.send(exchange, 503, JsonHttp.error("Too many sessions"));
+            return;
+        }
+        String seed = query.get("seed");
+        Game game;
+        try {
+            game = seed != null ? new Game(rows, cols, Long.parseLong(seed)) : new Game(rows, cols);
+        } catch (NumberFormatException e) {
+            JsonHttp.send(exchange, 400, JsonHttp.error("Invalid seed"));
+            return;
+        }
+        Session session = new Session(UUID.randomUUID().toString(), game);
+        sessions.put(session.id, session);
+        session.tell(exchange, () -> reply(exchange, session, 201, null));
+    }
+    
+    private void expireIdleSessions() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(session -> now - session.lastAccess > IDLE_TIMEOUT_NANOS);
+    }
+    
+    /**
+     * Sends the session state; runs inside the session's mailbox
+     * @param extra Additional JSON members to include, or null
+     */
+    private static void reply(HttpExchange exchange, Session session, int status, String extra) {
+        session.lastAccess = System.nanoTime();
+        Game game = session.game;
+        GameBoard board = game.getBoard();
+        StringBuilder json = new StringBuilder(64 + board.getTotalCards() * 3);
+        json.append("{\"session\":\"").append(session.id).append('"')
+                .append(",\"rows\":").append(board.getRows())
+                .append(",\"cols\":").append(board.getCols())
+                .append(",\"score\":").append(game.getScore())
+                .append(",\"moves\":").append(game.getMoves())
+                .append(",\"seconds\":").append(game.getElapsedTime())
+                .append(",\"faceUp\":").append(game.getFlippedCardCount())
+                .append(",\"gameOver\":").append(game.isGameOver());
+        if (extra != null) {
+            json.append(',').append(extra);
+        }
+        json.append(",\"cards\":[");
+        for (int i = 0; i < board.getTotalCards(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(board.isFlipped(i) ? board.getValue(i) : -1);
+        }
+        json.append("],\"matched\":[");
+        boolean first = true;
+        for (int i = 0; i < board.getTotalCards(); i++) {
+            if (board.isMatched(i)) {
+                json.append(first ? "" : ",").append(i);
+                first = false;
+            }
+        }
+        json.append("]}");
+        try {
+            JsonHttp.send(exchange, status, json.toString());
+        } catch (IOException e) {
+            // The client went away; the move itself still counts
+        }
+    }
+    
+    private static int parseInt(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        server.start();
+        System.out.println("Game server listening on http://localhost:" + server.getPort() + "/games");
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Immutable snapshot of a game in progress: which cards are face up or matched, the score and the move count.
+ * {@link Game} never changes a snapshot; every flip, match check and flip-back builds a new one and swaps it in
+ * atomically, so all values read from one snapshot always belong together.
+ */
+public final class GameState {
+    private static final int NONE = -1;
+
+    private final int totalCards;
+    private final long[] matched; // Bit i set = card i has been matched; shared between snapshots, never written
+    private final int matchedCards;
+    private final int first; // Face-up cards that are not matched yet, in flip order (NONE if absent)
+    private final int second;
+    private final int score;
+    private final int moves;
+    private final boolean gameOver;
+    private final long endTime; // Clock reading when the last pair was matched
+    private final int timeBonus;
+    private final int movesBonus;
+    private final int changedFirst; // Cards whose state changed in the transition that produced this snapshot
+    private final int changedSecond;
+
+    private GameState(int totalCards, long[] matched, int matchedCards, int first, int second,
+                      int score, int moves, boolean gameOver, long endTime, int timeBonus, int movesBonus,
+                      int changedFirst, int changedSecond) {
+        this.totalCards = totalCards;
+        this.matched = matched;
+        this.matchedCards = matchedCards;
+        this.first = first;
+        this.second = second;
+        this.score = score;
+        this.moves = moves;
+        this.gameOver = gameOver;
+        this.endTime = endTime;
+        this.timeBonus = timeBonus;
+        this.movesBonus = movesBonus;
+        this.changedFirst = changedFirst;
+        this.changedSecond = changedSecond;
+    }
+
+    /**
+     * Creates the snapshot of a new game: every card face down, no score and no moves
+     * @param totalCards Number of cards on the board
+     * @return The starting snapshot
+     */
+    static GameState initial(int totalCards) {
+        return new GameState(totalCards, new long[(totalCards + 63) >>> 6], 0, NONE, NONE,
+                0, 0, false, 0, 0, 0, NONE, NONE);
+    }
+
+    /**
+     * Turns one more card face up; turning up the second card counts as a move
+     * @param index The card, which must be face down
+     * @return The new snapshot
+     */
+    GameState flip(int index) {
+        if (first == NONE) {
+            return new GameState(totalCards, matched, matchedCards, index, NONE,
+                    score, moves, false, 0, 0, 0, index, NONE);
+        }
+        return new GameState(totalCards, matched, matchedCards, first, index,
+                score, moves + 1, false, 0, 0, 0, index, NONE);
+    }
+
+    /**
+     * Marks the two face-up cards as matched
+     * @param points Points added to the score
+     * @return The new snapshot
+     */
+    GameState match(int points) {
+        long[] updated = matched.clone();
+        updated[first >>> 6] |= 1L << first;
+        updated[second >>> 6] |= 1L << second;
+        return new GameState(totalCards, updated, matchedCards + 2, NONE, NONE,
+                score + points, moves, false, 0, 0, 0, first, second);
+    }
+
+    /**
+     * Ends the game, adding the final bonuses to the score
+     * @param endTime Clock reading when the game ended
+     * @param timeBonus Bonus for finishing quickly
+     * @param movesBonus Bonus for finishing in few moves
+     * @return The new snapshot
+     */
+    GameState finish(long endTime, int timeBonus, int movesBonus) {
+        return new GameState(totalCards, matched, matchedCards, first, second,
+                score + timeBonus + movesBonus, moves, true, endTime, timeBonus, movesBonus,
+                changedFirst, changedSecond);
+    }
+
+    /**
+     * Turns the face-up cards that are not matched face down again
+     * @return The new snapshot
+     */
+    GameState flipBack() {
+        return new GameState(totalCards, matched, matchedCards, NONE, NONE,
+                score, moves, false, 0, 0, 0, first, second);
+    }
+
+    /**
+     * Checks if a card is face up (matched cards stay face up)
+     * @param index The position on the board
+     * @return true if face up
+     */
+    public boolean isFlipped(int index) {
+        return index == first || index == second || isMatched(index);
+    }
+
+    /**
+     * Checks if a card has been matched
+     * @param index The position on the board
+     * @return true if matched
+     */
+    public boolean isMatched(int index) {
+        return (matched[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets a face-up card that is not matched yet
+     * @param n 0 for the card turned up first, 1 for the second
+     * @return The card index, or -1 if fewer cards are face up
+     */
+    public int getFlippedCard(int n) {
+        return n == 0 ? first : second;
+    }
+
+    /**
+     * Gets the number of face-up cards that are not matched yet
+     * @return Number of flipped cards (0, 1, or 2)
+     */
+    public int getFlippedCardCount() {
+        return first == NONE ? 0 : second == NONE ? 1 : 2;
+    }
+
+    /**
+     * Gets the cards whose state changed in the transition that produced this snapshot
+     * @return Indices of the changed cards (empty for a new game)
+     */
+    public int[] getChangedCards() {
+        if (changedFirst == NONE) {
+            return new int[0];
+        }
+        return changedSecond == NONE ? new int[] {changedFirst} : new int[] {changedFirst, changedSecond};
+    }
+
+    /**
+     * Gets the number of pairs matched so far
+     * @return Matched pair count
+     */
+    public int getMatchedPairs() {
+        return matchedCards / 2;
+    }
+
+    /**
+     * Checks if all cards have been matched (win condition)
+     * @return true if all cards are matched, false otherwise
+     */
+    public boolean allCardsMatched() {
+        return matchedCards == totalCards;
+    }
+
+    /**
+     * Gets the score
+     * @return Score, including the final bonuses once the game is over
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of moves made
+     * @return Number of moves
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Checks if the game is over
+     * @return true if game is over, false otherwise
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Gets the time bonus added to the score when the game ended
+     * @return Time bonus, or 0 while the game is still running
+     */
+    public int getTimeBonus() {
+        return timeBonus;
+    }
+
+    /**
+     * Gets the moves bonus added to the score when the game ended
+     * @return Moves bonus, or 0 while the game is still running
+     */
+    public int getMovesBonus() {
+        return movesBonus;
+    }
+
+    /**
+     * Gets the clock reading when the last pair was matched
+     * @return End time in nanoseconds, only meaningful once the game is over
+     */
+    long getEndTime() {
+        return endTime;
+    }
+}
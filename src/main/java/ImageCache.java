@@ -0,0 +1,154 @@
+import javafx.scene.image.Image;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Shared cache of decoded card images.
+ * Each PNG is decoded once, directly at the size it is drawn at, instead of at full resolution.
+ * Both cards of a pair get the same {@link Image} instance. When the decoded images exceed the
+ * memory budget, the least recently used ones are dropped (for example the previous deck after a switch).
+ */
+public class ImageCache {
+    // Room for every shipped deck at card size, with headroom for larger boards
+    private static final long DEFAULT_BUDGET_BYTES = 32L * 1024 * 1024;
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_BUDGET_BYTES);
+    
+    private final long budgetBytes;
+    private final Map<Key, Image> images = new LinkedHashMap<>(128, 0.75f, true); // Least recently used first
+    private long usedBytes;
+    
+    /**
+     * Identifies one decoded image: the file and the size it was decoded at
+     */
+    private static final class Key {
+        final Path file;
+        final int width;
+        final int height;
+        
+        Key(Path file, int width, int height) {
+            this.file = file;
+            this.width = width;
+            this.height = height;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return width == other.width && height == other.height && file.equals(other.file);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, width, height);
+        }
+    }
+    
+    /**
+     * Constructor for ImageCache
+     * @param budgetBytes Approximate memory the decoded images may use
+     */
+    public ImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+    
+    /**
+     * Gets the cache shared by the whole application
+     * @return The shared ImageCache
+     */
+    public static ImageCache getShared() {
+        return SHARED;
+    }
+    
+    /**
+     * Gets the face image for a card
+     * @param deck The deck in play
+     * @param value The card's pair identifier
+     * @param size Width and height the image is drawn at
+     * @return The decoded image, or null if the deck has no images or the file can't be decoded
+     */
+    public Image getCardFace(Deck deck, int value, int size) {
+        Path file = deck.getImageFile(value);
+        return file == null ? null : get(file, size, size);
+    }
+    
+    /**
+     * Gets an image decoded to fit the given size (aspect ratio preserved, smoothed).
+     * May be called from any thread; decoding happens outside the cache lock.
+     * Files that fail to decode are not cached, so a later call tries again.
+     * @param file The PNG file
+     * @param width Target width in pixels
+     * @param height Target height in pixels
+     * @return The decoded image, or null if the file can't be decoded
+     */
+    public Image get(Path file, int width, int height) {
+        Key key = new Key(file, width, height);
+        synchronized (this) {
+            Image cached = images.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        // Synchronous decode at the requested size, so the full-resolution bitmap is never kept
+        Image decoded = new Image(file.toUri().toString(), width, height, true, true, false);
+        if (decoded.isError()) {
+            Exception cause = decoded.getException();
+            System.err.println("Could not decode " + file + (cause != null ? ": " + cause.getMessage() : ""));
+            return null;
+        }
+        
+        synchronized (this) {
+            Image raced = images.get(key);
+            if (raced != null) {
+                return raced; // Another thread decoded it first; keep one shared instance
+            }
+            images.put(key, decoded);
+            usedBytes += sizeOf(decoded);
+            evictOverBudget(key);
+        }
+        return decoded;
+    }
+    
+    /**
+     * Checks whether an image is already decoded
+     * @param file The PNG file
+     * @param width Target width in pixels
+     * @param height Target height in pixels
+     * @return true if {@link #get} would return without decoding
+     */
+    public synchronized boolean contains(Path file, int width, int height) {
+        return images.containsKey(new Key(file, width, height));
+    }
+    
+    /**
+     * Gets the approximate memory held by decoded images
+     * @return Bytes in use
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+    
+    private void evictOverBudget(Key keep) {
+        Iterator<Map.Entry<Key, Image>> it = images.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<Key, Image> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            usedBytes -= sizeOf(eldest.getValue());
+            it.remove();
+        }
+    }
+    
+    private static long sizeOf(Image image) {
+        // Decoded images are 32-bit ARGB
+        return (long) (Math.ceil(image.getWidth()) * Math.ceil(image.getHeight()) * 4);
+    }
+}
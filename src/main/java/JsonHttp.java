@@ -0,0 +1,115 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request and reply plumbing shared by the JSON-over-HTTP services ({@link GameServer}, {@link LeaderboardHttpService})
+ * built on the JDK's built-in HTTP server.
+ */
+public final class JsonHttp {
+
+    private JsonHttp() {
+    }
+
+    /**
+     * Creates a server bound to localhost that sends small replies without delay
+     * @param port Port to listen on, or 0 for any free port
+     * @return The server, not yet started
+     * @throws IOException If the port can't be bound
+     */
+    public static HttpServer createLocalServer(int port) throws IOException {
+        // Small replies on kept-alive connections otherwise wait ~40 ms for Nagle/delayed ACK.
+        // Read once when the JDK server is first used, so it must be set before create()
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        return HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    }
+
+    /**
+     * Sends a JSON reply and closes the exchange
+     * @param exchange The request to answer
+     * @param status HTTP status code
+     * @param json The reply body
+     * @throws IOException If the client went away
+     */
+    public static void send(HttpExchange exchange, int status, String json) throws IOException {
+        try {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Builds an error reply body
+     * @param message What went wrong; escaped as needed
+     * @return {@code {"error":"<message>"}}
+     */
+    public static String error(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16);
+        json.append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Appends a value as a quoted JSON string
+     * @param json Where to append
+     * @param value The text to quote
+     */
+    public static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Splits a raw query string into its parameters. Names and values are URL-decoded; text that is not
+     * valid URL encoding is kept as it is. The last of repeated names wins.
+     * @param query The raw query (may be null)
+     * @return Parameter values by name
+     */
+    public static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return params;
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the top scores for each board size.
+ * Reads are served from memory until an entry is older than the TTL, and saves go through the
+ * cache to the database (write-through) so the cached lists stay current without a reload.
+ * With a database, only the most recently used board sizes are kept; without one nothing is evicted,
+ * since the cache is the only copy of the scores.
+ */
+public class LeaderboardCache {
+    // Rows fetched per round-trip when a list is loaded from the database
+    private static final int PAGE_SIZE = 25;
+    
+    private final ScoreDatabase database; // null when there is no database; the cache is then the only store
+    private final int topN;
+    private final int maxBoards;
+    private final long ttlNanos;
+    private final Map<Integer, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Guarded by this: a load that overlaps a save can't tell whether the saved score is in its result,
+    // so it is returned but not cached
+    private long saveVersion; // Bumped whenever a save starts or a score is added
+    private int savesInFlight; // saveAll calls between starting their insert and updating the lists
+
+    /**
+     * A cached top-N list and when it was loaded
+     */
+    private static final class Entry {
+        final List<Score> scores; // Best first, at most topN long
+        final long loadedAt;
+
+        Entry(List<Score> scores, long loadedAt) {
+            this.scores = scores;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Receives a list as it is loaded, one page at a time
+     */
+    @FunctionalInterface
+    public interface PageListener {
+        /**
+         * Called for each page in ranking order. Throwing aborts the load and nothing is cached.
+         * @param page The next scores
+         */
+        void onPage(List<Score> page);
+    }
+
+    /**
+     * Constructor for LeaderboardCache
+     * @param database Backing store, or null to keep scores in memory only
+     * @param topN Number of scores kept per board size
+     * @param maxBoards Number of board sizes kept before the least recently used one is evicted (ignored without a database)
+     * @param ttlMillis How long a loaded list is served before it is reloaded (ignored without a database)
+     */
+    public LeaderboardCache(ScoreDatabase database, int topN, int maxBoards, long ttlMillis) {
+        this.database = database;
+        this.topN = topN;
+        this.maxBoards = maxBoards;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (LeaderboardCache.this.database != null && size() > LeaderboardCache.this.maxBoards) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the top scores for a board size, loading them from the database if needed
+     * @param boardSize Number of cards on the board
+     * @return Scores ordered from best to worst
+     * @throws SQLException If the list had to be loaded and the database failed
+     */
+    public List<Score> get(int boardSize) throws SQLException {
+        return get(boardSize, null);
+    }
+
+    /**
+     * Gets the top scores for a board size, handing them to a listener as they arrive.
+     * A cached list is delivered as a single page; a list loaded from the database page by page.
+     * A list loaded while scores were being saved is returned without being cached.
+     * @param boardSize Number of cards on the board
+     * @param listener Receives the scores as they become available (may be null)
+     * @return Scores ordered from best to worst
+     * @throws SQLException If the list had to be loaded and the database failed
+     */
+    public List<Score> get(int boardSize, PageListener listener) throws SQLException {
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(boardSize);
+            if (entry != null && !isStale(entry)) {
+                hits.incrementAndGet();
+                if (listener != null) {
+                    listener.onPage(entry.scores);
+                }
+                return entry.scores;
+            }
+            if (entry != null) {
+                entries.remove(boardSize);
+                evictions.incrementAndGet();
+            }
+            // A save already in flight may or may not make it into the load
+            version = savesInFlight == 0 ? saveVersion : -1;
+        }
+
+        misses.incrementAndGet();
+        List<Score> loaded = load(boardSize, listener);
+        synchronized (this) {
+            // A save during the load found no list to add to, and may have committed after the query
+            if (version == saveVersion) {
+                entries.put(boardSize, new Entry(loaded, System.nanoTime()));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Saves scores to the database in one batch and adds them to the cached lists for their board sizes
+     * @param scores The scores to save
+     * @throws SQLException If the database refused the batch (the cache is left unchanged)
+     */
+    public void saveAll(List<Score> scores) throws SQLException {
+        synchronized (this) {
+            saveVersion++;
+            savesInFlight++;
+        }
+        try {
+            if (database != null) {
+                database.insertScores(scores);
+            }
+            for (Score score : scores) {
+                put(score);
+            }
+        } finally {
+            synchronized (this) {
+                savesInFlight--;
+            }
+        }
+    }
+
+    /**
+     * Adds an already saved score to the cached list for its board size
+     * @param score The score to add
+     */
+    public synchronized void put(Score score) {
+        saveVersion++;
+        Entry entry = entries.get(score.getBoardSize());
+        if (entry == null) {
+            if (database == null) {
+                entries.put(score.getBoardSize(), new Entry(Collections.singletonList(score), System.nanoTime()));
+            }
+            // Otherwise the next get() loads the list with this score in it
+            return;
+        }
+        List<Score> updated = new ArrayList<>(entry.scores.size() + 1);
+        updated.addAll(entry.scores);
+        int position = 0;
+        while (position < updated.size() && updated.get(position).getScore() > score.getScore()) {
+            position++; // Ties go in front, like the newest-first order of the database
+        }
+        if (position >= topN) {
+            return;
+        }
+        updated.add(position, score);
+        if (updated.size() > topN) {
+            updated.remove(updated.size() - 1);
+        }
+        entries.put(score.getBoardSize(), new Entry(Collections.unmodifiableList(updated), entry.loadedAt));
+    }
+
+    /**
+     * Drops every cached list so the next reads go to the database. Without a database nothing is dropped.
+     */
+    public synchronized void invalidateAll() {
+        if (database == null) {
+            return;
+        }
+        evictions.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of reads served from memory
+     * @return Hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads that had to load from the database
+     * @return Miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of lists dropped for being stale or least recently used
+     * @return Eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private boolean isStale(Entry entry) {
+        return database != null && System.nanoTime() - entry.loadedAt > ttlNanos;
+    }
+
+    private List<Score> load(int boardSize, PageListener listener) throws SQLException {
+        if (database == null) {
+            if (listener != null) {
+                listener.onPage(Collections.emptyList());
+            }
+            return Collections.emptyList();
+        }
+        try {
+            // Make sure scores still waiting in the write-behind queue are part of the result
+            database.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing pending scores", e);
+        } catch (SQLException e) {
+            // Scores the database rejected are retried by its writer; rank what is stored meanwhile
+            System.err.println(e.getMessage());
+        }
+
+        List<Score> scores = new ArrayList<>();
+        ScoreDatabase.PageKey key = null;
+        while (scores.size() < topN) {
+            int wanted = Math.min(PAGE_SIZE, topN - scores.size());
+            ScoreDatabase.Page page = database.page(boardSize, key, wanted);
+            scores.addAll(page.getScores());
+            if (listener != null && !page.getScores().isEmpty()) {
+                listener.onPage(page.getScores());
+            }
+            if (page.getScores().size() < wanted) {
+                break;
+            }
+            key = page.getLastKey();
+        }
+        return Collections.unmodifiableList(scores);
+    }
+}
@@ -1,21 +1,33 @@
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Controller for the leaderboard scene.
- * Displays high scores retrieved from the API (when implemented).
+ * Displays high scores for one {@link Difficulty} and time window: all-time lists come from the shared
+ * {@link LeaderboardCache}, today's and this week's from the {@link WindowedLeaderboard}.
+ * Scores are fetched on a background worker and added to the table page by page,
+ * so a slow database never freezes the UI.
  */
-public class LeaderboardController implements Initializable {
+public class LeaderboardController implements Initializable, SceneLifecycle {
+    
+    // Shared by every leaderboard view; loads are short and rarely overlap
+    private static final ExecutorService LOADER = BackgroundExecutors.newBoundedExecutor("leaderboard-loader", 2);
     
     @FXML
     private TableView<Score> leaderboardTable;
@@ -32,6 +44,12 @@ public class LeaderboardController implements Initializable {
     @FXML
     private TableColumn<Score, String> timeColumn;
     
+    @FXML
+    private ComboBox<Difficulty> difficultyBox;
+    
+    @FXML
+    private ComboBox<WindowedLeaderboard.Window> windowBox;
+    
     @FXML
     private Button backButton;
     
@@ -42,6 +60,7 @@ public class LeaderboardController implements Initializable {
     private Label statusLabel;
     
     private SceneManager sceneManager;
+    private Task<List<Score>> loadTask; // The fetch currently running, if any
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -53,8 +72,29 @@ public class LeaderboardController implements Initializable {
         movesColumn.setCellValueFactory(new PropertyValueFactory<>("moves"));
         timeColumn.setCellValueFactory(new PropertyValueFactory<>("formattedTime"));
         
-        // Load leaderboard data
-        loadLeaderboard();
+        difficultyBox.getItems().setAll(Difficulty.values());
+        windowBox.getItems().setAll(WindowedLeaderboard.Window.values());
+        windowBox.setValue(WindowedLeaderboard.Window.ALL_TIME);
+    }
+    
+    /**
+     * Loads leaderboard data every time the view is shown, starting with the preset last played
+     */
+    @Override
+    public void onShow() {
+        if (difficultyBox.getValue() != sceneManager.getDifficulty()) {
+            difficultyBox.setValue(sceneManager.getDifficulty()); // Fires handleDifficulty, which loads
+        } else {
+            loadLeaderboard();
+        }
+    }
+    
+    /**
+     * Stops a load that is still running when leaving the view
+     */
+    @Override
+    public void onHide() {
+        cancelLoad();
     }
     
     /**
@@ -66,22 +106,84 @@ public class LeaderboardController implements Initializable {
     }
     
     /**
-     * Loads leaderboard data from the API (or shows placeholder data)
+     * Starts loading leaderboard data in the background (from memory unless the cached list is stale).
+     * Any load still running is cancelled first.
      */
     private void loadLeaderboard() {
-        // TODO: Replace with actual API call when HttpClientService is implemented
-        // List<Score> scores = HttpClientService.getInstance().getLeaderboard();
-        
-        // For now, show placeholder message
-        statusLabel.setText("Leaderboard data will be loaded from API when implemented.");
+        cancelLoad();
+        leaderboardTable.getItems().clear();
+        statusLabel.setText("Loading...");
         
-        // Example placeholder data (remove when API is implemented)
-        List<Score> placeholderScores = new ArrayList<>();
-        placeholderScores.add(new Score("Player 1", 1500, 25, 120));
-        placeholderScores.add(new Score("Player 2", 1200, 30, 150));
-        placeholderScores.add(new Score("Player 3", 1000, 35, 180));
+        LeaderboardCache cache = sceneManager.getLeaderboardCache();
+        WindowedLeaderboard windowed = sceneManager.getWindowedLeaderboard();
+        int boardSize = difficultyBox.getValue().getBoardSize();
+        WindowedLeaderboard.Window window = windowBox.getValue();
+        Task<List<Score>> task = new Task<List<Score>>() {
+            @Override
+            protected List<Score> call() throws SQLException {
+                if (window != WindowedLeaderboard.Window.ALL_TIME) {
+                    // Kept in memory and short, so it arrives as a single page
+                    List<Score> scores = windowed.top(boardSize, window, Integer.MAX_VALUE);
+                    Platform.runLater(() -> {
+                        if (loadTask == this) {
+                            leaderboardTable.getItems().addAll(scores);
+                        }
+                    });
+                    return scores;
+                }
+                return cache.get(boardSize, page -> {
+                    if (isCancelled()) {
+                        throw new CancellationException();
+                    }
+                    Platform.runLater(() -> {
+                        // Pages queued before a cancel must not leak into the next load
+                        if (loadTask == this) {
+                            leaderboardTable.getItems().addAll(page);
+                        }
+                    });
+                });
+            }
+        };
+        task.setOnSucceeded(e -> {
+            int count = task.getValue().size();
+            String period = window == WindowedLeaderboard.Window.ALL_TIME
+                    ? "" : " " + window.toString().toLowerCase(Locale.ROOT);
+            statusLabel.setText(count == 0 ? "No scores yet" + period + "." : "Top " + count + " scores" + period);
+        });
+        task.setOnFailed(e -> {
+            Throwable error = task.getException();
+            error.printStackTrace();
+            statusLabel.setText("Could not load leaderboard: " + error.getMessage());
+        });
         
-        leaderboardTable.getItems().setAll(placeholderScores);
+        loadTask = task;
+        LOADER.execute(task);
+    }
+    
+    /**
+     * Cancels the running load, if any
+     */
+    private void cancelLoad() {
+        if (loadTask != null) {
+            loadTask.cancel(true);
+            loadTask = null;
+        }
+    }
+    
+    /**
+     * Handles picking another difficulty - shows that preset's leaderboard
+     */
+    @FXML
+    private void handleDifficulty() {
+        loadLeaderboard();
+    }
+    
+    /**
+     * Handles picking another time window - shows that window's leaderboard
+     */
+    @FXML
+    private void handleWindow() {
+        loadLeaderboard();
     }
     
     /**
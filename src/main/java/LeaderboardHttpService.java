@@ -0,0 +1,430 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Leaderboard web service with the same contract as leaderboard.js, backed by a {@link LeaderboardStore}
+ * instead of rewriting a JSON file on every submission.
+ * <p>
+ * Protocol (JSON over local HTTP):
+ * <pre>
+ * POST /submit            {"time": 42.5, "username": "ann"}; "score" is accepted in place of "time"
+ *                         replies {"ok":true,"entry":{..},"leaderboard":[top 10]}
+ * GET  /top?limit=N       the N fastest entries (default 10, at most 100)
+ * GET  /me?username=ann   {"username":"ann","entry":{..}} or "entry":null
+ * </pre>
+ * Entries look like {"username":"ann","time":42.5,"createdAt":"..","updatedAt":".."} with ISO-8601 times.
+ * A submission without a username counts as "anonymous".
+ * <p>
+ * A submission is answered once it is on disk. The store groups submissions arriving together into one
+ * disk flush, so concurrent clients share flushes instead of each waiting for its own.
+ */
+public class LeaderboardHttpService {
+    private static final int DEFAULT_PORT = 8091;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_BODY_BYTES = 100 * 1024;
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final LeaderboardStore store;
+    private final HttpServer server;
+    private final ExecutorService acceptors; // Parses requests and sends replies
+
+    /**
+     * Constructor for LeaderboardHttpService; call {@link #start()} to accept requests
+     * @param port Port to listen on (the server binds to localhost only)
+     * @param store Where entries are kept
+     * @throws IOException If the port can't be bound
+     */
+    public LeaderboardHttpService(int port, LeaderboardStore store) throws IOException {
+        this.store = store;
+        this.acceptors = BackgroundExecutors.newBoundedExecutor("leaderboard-http",
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.server = JsonHttp.createLocalServer(port);
+        server.setExecutor(acceptors);
+        server.createContext("/submit", this::handleSubmit);
+        server.createContext("/top", this::handleTop);
+        server.createContext("/me", this::handleMe);
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests. The store stays open.
+     */
+    public void stop() {
+        server.stop(1);
+        acceptors.shutdown();
+    }
+
+    /**
+     * Gets the port the server listens on
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleSubmit(HttpExchange exchange) throws IOException {
+        if (!route(exchange, "/submit", "POST")) {
+            return;
+        }
+        Map<String, Object> body;
+        try {
+            body = parseObject(readBody(exchange));
+        } catch (IllegalArgumentException e) {
+            JsonHttp.send(exchange, 400, JsonHttp.error("Invalid JSON body"));
+            return;
+        }
+        Object rawTime = body.containsKey("time") ? body.get("time") : body.get("score");
+        double time = toNumber(rawTime);
+        if (!Double.isFinite(time) || time <= 0) {
+            JsonHttp.send(exchange, 400, JsonHttp.error("Invalid time (must be a positive number)"));
+            return;
+        }
+        Object rawName = body.get("username");
+        String username = rawName instanceof String && !((String) rawName).isEmpty() ? (String) rawName : "anonymous";
+
+        store.submit(username, time).whenCompleteAsync((entry, failure) -> {
+            try {
+                if (failure != null) {
+                    failure.printStackTrace();
+                    JsonHttp.send(exchange, 500, JsonHttp.error("Internal server error"));
+                    return;
+                }
+                StringBuilder json = new StringBuilder(1024);
+                json.append("{\"ok\":true,\"entry\":");
+                appendEntry(json, entry);
+                json.append(",\"leaderboard\":");
+                appendEntries(json, store.top(DEFAULT_LIMIT));
+                json.append('}');
+                JsonHttp.send(exchange, 200, json.toString());
+            } catch (IOException e) {
+                // The client went away; the submission itself still counts
+            }
+        }, acceptors);
+    }
+
+    private void handleTop(HttpExchange exchange) throws IOException {
+        if (!route(exchange, "/top", "GET")) {
+            return;
+        }
+        int requested = leadingInt(JsonHttp.parseQuery(exchange.getRequestURI().getRawQuery()).get("limit"));
+        int limit = requested > 0 ? Math.min(requested, MAX_LIMIT) : DEFAULT_LIMIT;
+        StringBuilder json = new StringBuilder(limit * 96);
+        appendEntries(json, store.top(limit));
+        JsonHttp.send(exchange, 200, json.toString());
+    }
+
+    private void handleMe(HttpExchange exchange) throws IOException {
+        if (!route(exchange, "/me", "GET")) {
+            return;
+        }
+        String username = JsonHttp.parseQuery(exchange.getRequestURI().getRawQuery()).get("username");
+        if (username == null || username.isEmpty()) {
+            JsonHttp.send(exchange, 400, JsonHttp.error("No username available"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"username\":");
+        JsonHttp.appendString(json, username);
+        json.append(",\"entry\":");
+        LeaderboardStore.Entry entry = store.get(username);
+        if (entry == null) {
+            json.append("null");
+        } else {
+            appendEntry(json, entry);
+        }
+        json.append('}');
+        JsonHttp.send(exchange, 200, json.toString());
+    }
+
+    /**
+     * Checks that a request is for exactly this path and method, answering it with an error otherwise
+     */
+    private static boolean route(HttpExchange exchange, String path, String method) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            JsonHttp.send(exchange, 404, JsonHttp.error("Not found"));
+            return false;
+        }
+        if (!exchange.getRequestMethod().equals(method)) {
+            JsonHttp.send(exchange, 405, JsonHttp.error("Method not allowed"));
+            return false;
+        }
+        return true;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Body too large");
+                }
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    // ---- JSON ----------------------------------------------------------------------------------
+
+    private static void appendEntries(StringBuilder json, List<LeaderboardStore.Entry> entries) {
+        json.append('[');
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendEntry(json, entries.get(i));
+        }
+        json.append(']');
+    }
+
+    private static void appendEntry(StringBuilder json, LeaderboardStore.Entry entry) {
+        json.append("{\"username\":");
+        JsonHttp.appendString(json, entry.getUsername());
+        json.append(",\"time\":");
+        double time = entry.getTime();
+        if (time == Math.rint(time) && Math.abs(time) < 1e15) {
+            json.append((long) time); // 42, not 42.0, like JavaScript
+        } else {
+            json.append(time);
+        }
+        json.append(",\"createdAt\":\"").append(ISO.format(Instant.ofEpochMilli(entry.getCreatedAt())))
+                .append("\",\"updatedAt\":\"").append(ISO.format(Instant.ofEpochMilli(entry.getUpdatedAt())))
+                .append("\"}");
+    }
+
+    /**
+     * Converts a request value to a number the way JavaScript's Number() does for the types JSON has
+     * @return The number, or NaN if it isn't one
+     */
+    private static double toNumber(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value instanceof String) {
+            String text = ((String) value).trim();
+            if (text.isEmpty()) {
+                return 0;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return value == JSON_NULL ? 0 : Double.NaN;
+    }
+
+    private static final Object JSON_NULL = new Object();
+    private static final Object NESTED = new Object(); // An array or object; only top-level members are used
+
+    /**
+     * Parses a JSON object, keeping its top-level strings, numbers, booleans and nulls. An empty body is an empty object.
+     * @throws IllegalArgumentException If the text is not a JSON object
+     */
+    private static Map<String, Object> parseObject(String text) {
+        Map<String, Object> members = new HashMap<>();
+        JsonReader reader = new JsonReader(text);
+        if (reader.atEnd()) {
+            return members;
+        }
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String name = reader.string();
+                reader.expect(':');
+                members.put(name, reader.value());
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        if (!reader.atEnd()) {
+            throw new IllegalArgumentException("Trailing characters");
+        }
+        return members;
+    }
+
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            skipSpace();
+            return pos >= text.length();
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            }
+        }
+
+        Object value() {
+            skipSpace();
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                skipNested();
+                return NESTED;
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return JSON_NULL;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad value at " + start);
+            }
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escape = text.charAt(pos++);
+                switch (escape) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Bad escape at " + pos);
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Bad escape at " + pos);
+                        }
+                        pos += 4;
+                        break;
+                    default: value.append(escape);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        /**
+         * Skips an array or object, including any strings inside it
+         */
+        private void skipNested() {
+            int depth = 0;
+            do {
+                if (pos >= text.length()) {
+                    throw new IllegalArgumentException("Unexpected end");
+                }
+                char c = text.charAt(pos);
+                if (c == '"') {
+                    string();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+
+    // ---- Requests ------------------------------------------------------------------------------
+
+    /**
+     * Reads the leading digits of a value like JavaScript's parseInt
+     * @return The number, or 0 if the value doesn't start with one
+     */
+    private static int leadingInt(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int end = 0;
+        while (end < value.length() && end < 9 && Character.isDigit(value.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? 0 : Integer.parseInt(value.substring(0, end));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path log = Paths.get(args.length > 1 ? args[1] : "leaderboard.log");
+        LeaderboardStore store = new LeaderboardStore(log);
+        LeaderboardHttpService service = new LeaderboardHttpService(port, store);
+        service.start();
+        System.out.println("Leaderboard service listening on http://localhost:" + service.getPort() + "/top");
+    }
+}
@@ -0,0 +1,434 @@
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Best time per user, ranked fastest first, kept in memory and made durable in an append-only log.
+ * This is the store behind {@link LeaderboardHttpService} and follows the rules of leaderboard.js: a user's
+ * time only improves, every submission refreshes the user's updatedAt, and ties go to the earlier updatedAt.
+ * <p>
+ * Submissions update the in-memory index at once and queue one log line. A single writer thread appends
+ * everything queued, forces it to disk once for the whole group and only then completes the submissions,
+ * so each acknowledged submission is durable without one disk flush per request. When the log has grown to
+ * several times the number of users it is compacted: a snapshot with one line per user replaces it.
+ * <p>
+ * Reads never lock: the index is a concurrent map by user plus a concurrent skip list by rank.
+ * Replaying the log keeps the best time, the earliest createdAt and the latest updatedAt of each user,
+ * so the order of the lines does not matter and lines written twice are harmless.
+ */
+public class LeaderboardStore implements AutoCloseable {
+    private static final int MAX_GROUP = 4096; // Submissions written per disk flush at most
+    private static final long MIN_COMPACT_RECORDS = 10_000;
+
+    /**
+     * One user's leaderboard entry
+     */
+    public static final class Entry {
+        private final String username;
+        private final double time;
+        private final long createdAt;
+        private final long updatedAt;
+
+        Entry(String username, double time, long createdAt, long updatedAt) {
+            this.username = username;
+            this.time = time;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * Gets the user's best time
+         * @return Best time (lower is better)
+         */
+        public double getTime() {
+            return time;
+        }
+
+        /**
+         * Gets when the user first submitted
+         * @return Epoch milliseconds
+         */
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * Gets when the user last submitted, whether or not the time improved
+         * @return Epoch milliseconds
+         */
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+
+        /**
+         * Combines two records of the same user
+         */
+        Entry merge(double otherTime, long otherCreatedAt, long otherUpdatedAt) {
+            return new Entry(username, Math.min(time, otherTime),
+                    Math.min(createdAt, otherCreatedAt), Math.max(updatedAt, otherUpdatedAt));
+        }
+    }
+
+    // Fastest first, earlier updatedAt on ties; the username makes the order total
+    private static final Comparator<Entry> RANK = Comparator.comparingDouble(Entry::getTime)
+            .thenComparingLong(Entry::getUpdatedAt)
+            .thenComparing(Entry::getUsername);
+
+    /**
+     * A log line waiting for the writer, and the submission to complete once it is on disk
+     */
+    private static final class Pending {
+        final String line;
+        final Entry entry;
+        final CompletableFuture<Entry> done = new CompletableFuture<>();
+
+        Pending(String line, Entry entry) {
+            this.line = line;
+            this.entry = entry;
+        }
+    }
+
+    // Queued by close() to stop the writer once everything before it is written
+    private static final Pending STOP = new Pending("", null);
+
+    private final Path logFile;
+    private final Map<String, Entry> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(RANK);
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    // Submissions hold the read lock from the closing check until they are queued, so close() queues STOP after them
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+    private boolean closing; // Guarded by admission
+
+    // Writer-thread state
+    private FileChannel log;
+    private long logRecords; // Lines in the log file
+
+    /**
+     * Constructor for LeaderboardStore. Loads the log if it exists.
+     * @param logFile Append-only file the entries are kept in
+     * @throws IOException If the log exists but can't be read, or can't be opened for appending
+     */
+    public LeaderboardStore(Path logFile) throws IOException {
+        this.logFile = logFile;
+        Path parent = logFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(logFile)) {
+            byte[] bytes = Files.readAllBytes(logFile);
+            int complete = 0; // Length up to and including the last newline
+            for (int i = bytes.length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    complete = i + 1;
+                    break;
+                }
+            }
+            for (String line : new String(bytes, 0, complete, StandardCharsets.UTF_8).split("\n")) {
+                if (!line.isEmpty()) {
+                    replay(line);
+                    logRecords++;
+                }
+            }
+            if (complete < bytes.length) {
+                // Drop a line torn by a crash mid-write, or the next append would be glued onto it
+                try (FileChannel torn = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                    torn.truncate(complete);
+                    torn.force(false);
+                }
+            }
+        }
+        this.log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::runWriter, "leaderboard-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records a time for a user. The index is updated right away; the future completes once the
+     * submission is on disk.
+     * @param username The user
+     * @param time The time achieved (lower is better)
+     * @return Completes with the user's entry after this submission, or exceptionally if it could not be logged
+     */
+    public CompletableFuture<Entry> submit(String username, double time) {
+        admission.readLock().lock();
+        try {
+            if (closing) {
+                CompletableFuture<Entry> closed = new CompletableFuture<>();
+                closed.completeExceptionally(new IllegalStateException("LeaderboardStore is closed"));
+                return closed;
+            }
+            long now = System.currentTimeMillis();
+            Pending[] pending = new Pending[1];
+            // compute() runs one submission per user at a time, so the index and the log line agree
+            byUser.compute(username, (user, old) -> {
+                Entry next = old == null
+                        ? new Entry(user, time, now, now)
+                        : new Entry(user, Math.min(old.time, time), old.createdAt, Math.max(old.updatedAt, now));
+                index(old, next);
+                pending[0] = new Pending("S\t" + encode(user) + "\t" + time + "\t" + now, next);
+                queue.add(pending[0]);
+                return next;
+            });
+            return pending[0].done;
+        } finally {
+            admission.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a user's entry
+     * @param username The user
+     * @return The entry, or null if the user never submitted
+     */
+    public Entry get(String username) {
+        return byUser.get(username);
+    }
+
+    /**
+     * Gets the fastest entries
+     * @param limit Maximum number of entries to return
+     * @return Entries ordered from fastest to slowest
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> top = new ArrayList<>(Math.min(limit, 128));
+        for (Entry entry : ranked) {
+            if (top.size() >= limit) {
+                break;
+            }
+            // Skip the old position of a user whose update is still in progress
+            Entry current = byUser.get(entry.username);
+            if (current != null && RANK.compare(current, entry) == 0) {
+                top.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Gets the number of users on the leaderboard
+     * @return User count
+     */
+    public int size() {
+        return byUser.size();
+    }
+
+    /**
+     * Gets the number of times the log was forced to disk; lower than the number of submissions under load
+     * @return Flush count
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * Gets the number of times the log was compacted
+     * @return Compaction count
+     */
+    public long getCompactionCount() {
+        return compactions.get();
+    }
+
+    /**
+     * Writes everything still queued and closes the log. Submissions made after this are rejected.
+     * If interrupted while waiting, the writer still finishes in the background and the interrupt flag is kept.
+     */
+    @Override
+    public void close() {
+        admission.writeLock().lock();
+        try {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            queue.add(STOP); // Every accepted submission is already queued ahead of it
+        } finally {
+            admission.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Moves a user from their old position in the ranking to the new one. The new position is added first,
+     * so a concurrent reader sees the user at one of the two and {@link #top} skips the stale one.
+     */
+    private void index(Entry old, Entry next) {
+        ranked.add(next);
+        if (old != null && RANK.compare(old, next) != 0) {
+            ranked.remove(old);
+        }
+    }
+
+    // ---- Log -----------------------------------------------------------------------------------
+
+    /**
+     * Writer loop: appends whatever is queued as one group, forces it, then completes the group
+     */
+    private void runWriter() {
+        List<Pending> group = new ArrayList<>(MAX_GROUP);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                // Only close() should stop the writer, and it never interrupts it
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(group, MAX_GROUP - 1);
+            if (group.remove(STOP)) {
+                stopping = true; // Nothing can be queued after STOP
+            }
+            if (!group.isEmpty()) {
+                writeGroup(group);
+            }
+            group.clear();
+            if (!stopping && logRecords > Math.max(MIN_COMPACT_RECORDS, 4L * byUser.size())) {
+                compact();
+            }
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeGroup(List<Pending> group) {
+        StringBuilder text = new StringBuilder(group.size() * 48);
+        for (Pending pending : group) {
+            text.append(pending.line).append('\n');
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                log.write(bytes);
+            }
+            log.force(false);
+            flushes.incrementAndGet();
+            logRecords += group.size();
+        } catch (IOException e) {
+            // The index already has these submissions; they are lost on restart unless a later compaction saves them
+            for (Pending pending : group) {
+                pending.done.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Pending pending : group) {
+            pending.done.complete(pending.entry);
+        }
+    }
+
+    /**
+     * Replaces the log with one line per user. Every line written so far is reflected in the index by now;
+     * submissions still queued are appended to the new log afterwards.
+     */
+    private void compact() {
+        Path temp = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        long lines = 0;
+        try {
+            StringBuilder text = new StringBuilder(byUser.size() * 64);
+            for (Entry entry : byUser.values()) {
+                text.append("E\t").append(encode(entry.username)).append('\t').append(entry.time)
+                        .append('\t').append(entry.createdAt).append('\t').append(entry.updatedAt).append('\n');
+                lines++;
+            }
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+                out.force(false);
+            }
+            log.close();
+            Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logRecords = lines;
+            compactions.incrementAndGet();
+        } catch (IOException e) {
+            e.printStackTrace(); // Keep appending to whichever log is in place
+        } finally {
+            try {
+                if (!log.isOpen()) {
+                    log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Applies one log line to the index
+     */
+    private void replay(String line) {
+        String[] fields = line.split("\t");
+        try {
+            String username;
+            double time;
+            long createdAt;
+            long updatedAt;
+            if (fields[0].equals("S") && fields.length == 4) {
+                username = decode(fields[1]);
+                time = Double.parseDouble(fields[2]);
+                createdAt = updatedAt = Long.parseLong(fields[3]);
+            } else if (fields[0].equals("E") && fields.length == 5) {
+                username = decode(fields[1]);
+                time = Double.parseDouble(fields[2]);
+                createdAt = Long.parseLong(fields[3]);
+                updatedAt = Long.parseLong(fields[4]);
+            } else {
+                return; // A torn final line from a crash mid-write
+            }
+            Entry old = byUser.get(username);
+            Entry next = old == null
+                    ? new Entry(username, time, createdAt, updatedAt)
+                    : old.merge(time, createdAt, updatedAt);
+            byUser.put(username, next);
+            index(old, next);
+        } catch (IllegalArgumentException e) {
+            // Also a torn line
+        }
+    }
+
+    private static String encode(String username) {
+        return URLEncoder.encode(username, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String username) {
+        return URLDecoder.decode(username, StandardCharsets.UTF_8);
+    }
+}
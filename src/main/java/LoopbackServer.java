@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for a multiplayer server, for testing {@link MultiplayerBoard} without a network.
+ * Clients talk to it the way they would over a socket: actions go up and events come down as lines of text,
+ * and every action can be delayed by a fixed one-way latency.
+ */
+public class LoopbackServer implements AutoCloseable {
+    private final ScheduledExecutorService scheduler;
+    private final long latencyMillis;
+    private final Map<String, MultiplayerBoard> boards = new ConcurrentHashMap<>();
+
+    /**
+     * A client's connection to one board
+     */
+    public final class Connection {
+        private final MultiplayerBoard.Client client;
+
+        private Connection(MultiplayerBoard.Client client) {
+            this.client = client;
+        }
+
+        /**
+         * Sends a flip to the server
+         * @param card Index of the card
+         * @return Completes with true if the card was turned up, false if the move was not allowed
+         */
+        public CompletableFuture<Boolean> flip(int card) {
+            return send("FLIP " + card);
+        }
+
+        /**
+         * Waits for the next batch of events from the server
+         * @param timeout How long to wait
+         * @param unit Unit of the timeout
+         * @return Events of one frame in order, or null if none arrived in time
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public List<BoardEvent> receive(long timeout, TimeUnit unit) throws InterruptedException {
+            List<BoardEvent> frame = client.poll(timeout, unit);
+            if (frame == null) {
+                return null;
+            }
+            List<BoardEvent> received = new ArrayList<>(frame.size());
+            for (BoardEvent event : frame) {
+                received.add(BoardEvent.decode(event.encode())); // Through the wire format and back
+            }
+            return received;
+        }
+
+        /**
+         * Gets how many times this connection fell behind and was resynced with a snapshot
+         * @return Resync count
+         */
+        public long getResyncCount() {
+            return client.getResyncCount();
+        }
+
+        /**
+         * Disconnects from the board
+         */
+        public void close() {
+            client.leave();
+        }
+
+        private CompletableFuture<Boolean> send(String line) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            Runnable arrive = () -> {
+                String[] parts = line.split(" ");
+                if (parts[0].equals("FLIP")) {
+                    client.flip(Integer.parseInt(parts[1]))
+                            .whenComplete((flipped, error) -> reply(result, flipped, error));
+                } else {
+                    result.completeExceptionally(new IllegalArgumentException("Unknown action: " + line));
+                }
+            };
+            if (latencyMillis > 0) {
+                scheduler.schedule(arrive, latencyMillis, TimeUnit.MILLISECONDS);
+            } else {
+                arrive.run();
+            }
+            return result;
+        }
+
+        private void reply(CompletableFuture<Boolean> result, Boolean flipped, Throwable error) {
+            Runnable back = () -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(flipped);
+                }
+            };
+            if (latencyMillis > 0) {
+                scheduler.schedule(back, latencyMillis, TimeUnit.MILLISECONDS);
+            } else {
+                back.run();
+            }
+        }
+    }
+
+    /**
+     * Constructor for LoopbackServer
+     * @param latencyMillis One-way delay added to every action and its reply (0 for none)
+     */
+    public LoopbackServer(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                Runtime.getRuntime().availableProcessors(), BackgroundExecutors.newThreadFactory("loopback-board"));
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // Pending reveals and timeouts die with the server
+        this.scheduler = executor;
+    }
+
+    /**
+     * Opens a new board
+     * @param rows Number of rows on the board
+     * @param cols Number of columns on the board
+     * @param seed Seed for the board shuffle
+     * @param mode Whether players take turns or race
+     * @param players Number of players
+     * @param revealMillis How long two face-up cards stay visible before they are checked
+     * @return Id to connect to the board with
+     */
+    public String createBoard(int rows, int cols, long seed, MultiplayerBoard.Mode mode, int players, long revealMillis) {
+        String id = UUID.randomUUID().toString();
+        boards.put(id, new MultiplayerBoard(rows, cols, seed, mode, players, revealMillis, scheduler));
+        return id;
+    }
+
+    /**
+     * Gets a hosted board, e.g. to check its state
+     * @param id Id returned by {@link #createBoard}
+     * @return The board, or null if there is no such board
+     */
+    public MultiplayerBoard getBoard(String id) {
+        return boards.get(id);
+    }
+
+    /**
+     * Connects to a board
+     * @param id Id returned by {@link #createBoard}
+     * @param player Player number to play as, or -1 to watch only
+     * @param queueCapacity Number of undelivered batches kept before the connection is resynced
+     * @return The connection
+     */
+    public Connection connect(String id, int player, int queueCapacity) {
+        MultiplayerBoard board = boards.get(id);
+        if (board == null) {
+            throw new IllegalArgumentException("No board " + id);
+        }
+        return new Connection(board.join(player, queueCapacity));
+    }
+
+    /**
+     * Closes a board; its connections stop receiving events
+     * @param id Id returned by {@link #createBoard}
+     */
+    public void closeBoard(String id) {
+        MultiplayerBoard board = boards.remove(id);
+        if (board != null) {
+            board.close();
+        }
+    }
+
+    /**
+     * Stops the server and drops every board
+     */
+    @Override
+    public void close() {
+        boards.values().forEach(MultiplayerBoard::close);
+        boards.clear();
+        scheduler.shutdown();
+    }
+}
@@ -1,23 +1,75 @@
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.sql.SQLException;
+
 /**
  * The entry point for the Memory Game application.
  * This initializes JavaFX and loads the first scene (main menu).
+ * Scores are stored in a database when {@code -Dmemorygame.db.url} is set
+ * (with optional {@code memorygame.db.user} and {@code memorygame.db.password}).
+ * With {@code -Dmemorygame.warmup=true} the remaining views are parsed in the background at startup.
  */
 public class Main extends Application {
 
     private SceneManager sceneManager;
+    private ScoreDatabase scoreDatabase;
 
     @Override
     public void start(Stage primaryStage) {
-        sceneManager = new SceneManager(primaryStage);
+        long start = System.nanoTime();
+        scoreDatabase = openScoreDatabase();
+        sceneManager = new SceneManager(primaryStage, scoreDatabase);
         // Show the main menu when the application starts
         sceneManager.showMainMenu();
         primaryStage.show();
+        PerfLog.elapsed("startup (main menu shown)", start);
+        PerfLog.sinceLaunchOnNextFrame("time to first frame");
+        if (Boolean.getBoolean("memorygame.warmup")) {
+            // Parse the other views while the player looks at the menu
+            sceneManager.warmUp();
+        }
+        // Decode card images in the background while the player is on the menu
+        sceneManager.getDeckPreloader().preloadAll(sceneManager.getDifficulty());
+    }
+
+    @Override
+    public void stop() throws Exception {
+        // Deliver (or leave spooled) submitted scores, then write anything still queued before the JVM exits
+        sceneManager.getScoreSubmissionService().close();
+        sceneManager.getScoreVerifier().close();
+        if (scoreDatabase != null) {
+            scoreDatabase.close();
+        }
+    }
+
+    /**
+     * Opens the score database configured through system properties
+     * @return The database, or null if none is configured or it can't be reached
+     */
+    private static ScoreDatabase openScoreDatabase() {
+        String url = System.getProperty("memorygame.db.url");
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        ScoreDatabase database = new ScoreDatabase(url,
+                System.getProperty("memorygame.db.user"), System.getProperty("memorygame.db.password"));
+        try {
+            database.init();
+            return database;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                database.close();
+            } catch (SQLException closeFailure) {
+                closeFailure.printStackTrace();
+            }
+            return null;
+        }
     }
 
     public static void main(String[] args) {
+        PerfLog.markLaunch();
         launch(args);
     }
 }
\ No newline at end of file
@@ -1,20 +1,33 @@
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.ComboBox;
 
 import java.net.URL;
 import java.util.ResourceBundle;
 
 /**
  * Controller for the main menu scene.
- * Handles navigation to game and leaderboard.
+ * Handles difficulty selection and navigation to game and leaderboard.
  */
 public class MainMenuController implements Initializable {
     
+    @FXML
+    private ComboBox<Difficulty> difficultyBox;
+    
     private SceneManager sceneManager;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         sceneManager = SceneManager.getInstance();
+        
+        difficultyBox.getItems().setAll(Difficulty.values());
+        difficultyBox.setValue(sceneManager != null ? sceneManager.getDifficulty() : Difficulty.CLASSIC);
+        // Decode the chosen deck first so it is likely ready by the time Start is clicked
+        difficultyBox.valueProperty().addListener((obs, old, selected) -> {
+            if (selected != null && sceneManager != null) {
+                sceneManager.getDeckPreloader().preload(selected);
+            }
+        });
     }
     
     /**
@@ -31,7 +44,7 @@ public class MainMenuController implements Initializable {
     @FXML
     private void handleStartGame() {
         if (sceneManager != null) {
-            sceneManager.showGame();
+            sceneManager.showGame(difficultyBox.getValue());
         }
     }
     
@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulated player that remembers up to a fixed number of seen cards (oldest forgotten first).
+ * It takes a known pair when it has one, otherwise explores a card it does not remember,
+ * and completes a pair whenever the first card of a turn matches one it remembers.
+ * With a capacity of 0 it plays purely at random.
+ */
+class MemoryPlayer implements PlayerStrategy.Player {
+    private final int capacity;
+    private final RandomGenerator random;
+    private final int[] known; // Remembered value per card, -1 if not remembered
+    private final int[] slotA; // Per value: the remembered positions of that pair, -1 if none
+    private final int[] slotB;
+    private final int[] recent; // Ring buffer of remembered cards, oldest first
+    private int recentStart;
+    private int recentCount;
+    private final int[] candidates; // Scratch space for random picks
+    
+    /**
+     * Constructor for MemoryPlayer
+     * @param totalCards Number of cards on the board
+     * @param capacity Number of cards remembered
+     * @param random Random source for exploring
+     */
+    MemoryPlayer(int totalCards, int capacity, RandomGenerator random) {
+        this.capacity = capacity;
+        this.random = random;
+        this.known = new int[totalCards];
+        this.slotA = new int[(totalCards + 1) / 2];
+        this.slotB = new int[slotA.length];
+        this.recent = new int[Math.max(1, capacity)];
+        this.candidates = new int[totalCards];
+        Arrays.fill(known, -1);
+        Arrays.fill(slotA, -1);
+        Arrays.fill(slotB, -1);
+    }
+    
+    @Override
+    public int pick(GameBoard board, int firstPick) {
+        if (firstPick < 0) {
+            // Take a pair we already know about
+            for (int value = 0; value < slotA.length; value++) {
+                int a = slotA[value];
+                if (a >= 0 && slotB[value] >= 0 && !board.isMatched(a)) {
+                    return a;
+                }
+            }
+        } else {
+            int value = board.getValue(firstPick);
+            int partner = slotA[value] == firstPick ? slotB[value] : slotA[value];
+            if (partner >= 0 && !board.isMatched(partner)) {
+                return partner;
+            }
+        }
+        return pickUnknown(board);
+    }
+    
+    @Override
+    public void saw(int index, int value) {
+        if (capacity == 0 || known[index] >= 0) {
+            return;
+        }
+        if (recentCount == capacity) {
+            forget(recent[recentStart]);
+            recentStart = (recentStart + 1) % capacity;
+            recentCount--;
+        }
+        recent[(recentStart + recentCount) % capacity] = index;
+        recentCount++;
+        known[index] = value;
+        if (slotA[value] < 0) {
+            slotA[value] = index;
+        } else {
+            slotB[value] = index;
+        }
+    }
+    
+    private void forget(int index) {
+        int value = known[index];
+        known[index] = -1;
+        if (slotA[value] == index) {
+            slotA[value] = -1;
+        } else if (slotB[value] == index) {
+            slotB[value] = -1;
+        }
+    }
+    
+    /**
+     * Picks a random face-down card, preferring ones not remembered
+     */
+    private int pickUnknown(GameBoard board) {
+        int count = 0;
+        int faceDown = 0;
+        for (int i = 0; i < known.length; i++) {
+            if (!board.isFlipped(i)) {
+                faceDown++;
+                if (known[i] < 0) {
+                    candidates[count++] = i;
+                }
+            }
+        }
+        if (count == 0) {
+            // Everything left is remembered but unpaired; any face-down card will do
+            for (int i = 0; i < known.length && count < faceDown; i++) {
+                if (!board.isFlipped(i)) {
+                    candidates[count++] = i;
+                }
+            }
+        }
+        return candidates[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,371 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One {@link Game} shared by two to eight players, either taking turns or racing, with every flip and match
+ * broadcast to the connected clients.
+ * <p>
+ * In {@link Mode#TURNS} only the player whose turn it is may flip; a match keeps the turn and a miss passes it on.
+ * In {@link Mode#RACE} anyone may turn up a first card, and whoever did so owns the pick until it is checked.
+ * Two face-up cards are checked after a short reveal, and a lone card left face up too long is turned back.
+ * <p>
+ * The board is an actor: flips, checks and joins are queued in a mailbox and run one at a time on the shared
+ * scheduler, so no locks are needed. Events are collected and sent once per frame (1/60 s) as a batch. Every
+ * client has a bounded queue of batches; a client that stops reading has its backlog replaced by a single
+ * {@link BoardEvent.Type#SNAPSHOT}, so one slow client never holds up the board or the other players.
+ */
+public class MultiplayerBoard {
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 8;
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    private static final long PICK_TIMEOUT_MILLIS = 10_000; // Lone face-up card (or idle turn) is given up after this
+
+    /**
+     * How players share the board
+     */
+    public enum Mode {
+        TURNS, // One player at a time, like the board game
+        RACE   // Everyone at once; the first to turn up a card gets to pick its partner
+    }
+
+    private final Game game;
+    private final Mode mode;
+    private final int[] pairs; // Pairs matched by each player
+    private final long revealMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(); // Messages in the mailbox; 0 means no drain is scheduled
+
+    // Actor state, only touched while draining the mailbox
+    private final List<Client> clients = new ArrayList<>();
+    private final List<BoardEvent> batch = new ArrayList<>(); // Events of the current frame
+    private boolean flushScheduled;
+    private int turn;
+    private int holder = -1; // Player who turned up the current first card
+    private int timeoutToken; // Bumped on every flip and turn so stale timeouts do nothing
+    private boolean closed;
+
+    /**
+     * A connection to the board: receives the broadcast event batches and flips cards for one player
+     */
+    public final class Client {
+        private final int player;
+        private final BlockingQueue<List<BoardEvent>> inbox;
+        private final AtomicLong resyncs = new AtomicLong();
+        private boolean synced; // Has had its snapshot; later frames can be applied on top of it
+
+        private Client(int player, int queueCapacity) {
+            this.player = player;
+            this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        /**
+         * Gets the player this client plays as
+         * @return Player number, or -1 for a spectator
+         */
+        public int getPlayer() {
+            return player;
+        }
+
+        /**
+         * Tries to turn a card face up for this client's player
+         * @param card Index of the card
+         * @return Completes with true if the card was turned up, false if the move was not allowed
+         */
+        public CompletableFuture<Boolean> flip(int card) {
+            return MultiplayerBoard.this.flip(player, card);
+        }
+
+        /**
+         * Waits for the next batch of events
+         * @param timeout How long to wait
+         * @param unit Unit of the timeout
+         * @return Events of one frame in order, or null if none arrived in time
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public List<BoardEvent> poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return inbox.poll(timeout, unit);
+        }
+
+        /**
+         * Gets how many times this client fell behind and had its backlog replaced by a snapshot
+         * @return Resync count
+         */
+        public long getResyncCount() {
+            return resyncs.get();
+        }
+
+        /**
+         * Disconnects from the board; no more events are queued for this client
+         */
+        public void leave() {
+            tell(() -> clients.remove(this));
+        }
+
+        /**
+         * Queues a batch without ever blocking the board
+         */
+        private void deliver(List<BoardEvent> events) {
+            if (!inbox.offer(events)) {
+                // Too far behind to catch up event by event: start over from the current state
+                inbox.clear();
+                inbox.offer(Collections.singletonList(snapshot()));
+                resyncs.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Constructor for MultiplayerBoard
+     * @param rows Number of rows on the board
+     * @param cols Number of columns on the board
+     * @param seed Seed for the board shuffle
+     * @param mode Whether players take turns or race
+     * @param players Number of players, from {@link #MIN_PLAYERS} to {@link #MAX_PLAYERS}
+     * @param revealMillis How long two face-up cards stay visible before they are checked
+     * @param scheduler Runs the board's mailbox and timers; may be shared by many boards
+     */
+    public MultiplayerBoard(int rows, int cols, long seed, Mode mode, int players, long revealMillis,
+                            ScheduledExecutorService scheduler) {
+        if (players < MIN_PLAYERS || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A board needs " + MIN_PLAYERS + " to " + MAX_PLAYERS + " players");
+        }
+        this.game = new Game(rows, cols, seed);
+        this.mode = mode;
+        this.pairs = new int[players];
+        this.revealMillis = revealMillis;
+        this.scheduler = scheduler;
+        if (mode == Mode.TURNS) {
+            tell(this::armTimeout);
+        }
+    }
+
+    /**
+     * Connects a client. Its first batch is a snapshot of the current state.
+     * @param player Player number the client plays as, or -1 to watch only
+     * @param queueCapacity Number of undelivered batches kept before the client is resynced
+     * @return The client
+     */
+    public Client join(int player, int queueCapacity) {
+        if (player < -1 || player >= pairs.length) {
+            throw new IllegalArgumentException("No player " + player + " on this board");
+        }
+        Client client = new Client(player, queueCapacity);
+        tell(() -> {
+            clients.add(client);
+            if (!flushScheduled) {
+                client.deliver(Collections.singletonList(snapshot()));
+                client.synced = true;
+            }
+            // Otherwise the state already includes the pending frame; the snapshot goes out in its place
+        });
+        return client;
+    }
+
+    /**
+     * Tries to turn a card face up for a player
+     * @param player Player number
+     * @param card Index of the card
+     * @return Completes with true if the card was turned up, false if the move was not allowed
+     */
+    public CompletableFuture<Boolean> flip(int player, int card) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        tell(() -> result.complete(handleFlip(player, card)));
+        return result;
+    }
+
+    /**
+     * Closes the board: clients are disconnected and no more flips are accepted
+     */
+    public void close() {
+        tell(() -> {
+            closed = true;
+            timeoutToken++;
+            clients.clear();
+        });
+    }
+
+    /**
+     * Gets the game being played; read-only use is safe from any thread
+     * @return The game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Gets how players share the board
+     * @return The mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the number of players
+     * @return Player count
+     */
+    public int getPlayerCount() {
+        return pairs.length;
+    }
+
+    // ---- Actor ---------------------------------------------------------------------------------
+
+    private void tell(Runnable message) {
+        mailbox.add(message);
+        if (queued.getAndIncrement() == 0) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            Runnable message = mailbox.poll();
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        } while (queued.decrementAndGet() > 0);
+    }
+
+    private boolean handleFlip(int player, int card) {
+        if (closed || player < 0 || game.isGameOver()) {
+            return false;
+        }
+        if (mode == Mode.TURNS ? player != turn : holder >= 0 && holder != player) {
+            return false;
+        }
+        if (!game.flipCard(card)) {
+            return false;
+        }
+        publish(BoardEvent.flip(player, card, game.getBoard().getValue(card)));
+        if (game.getFlippedCardCount() == 1) {
+            holder = player;
+            armTimeout();
+        } else {
+            timeoutToken++;
+            scheduler.schedule(() -> tell(this::resolve), revealMillis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Checks the two face-up cards once the reveal is over
+     */
+    private void resolve() {
+        GameState state = game.getState();
+        int cardA = state.getFlippedCard(0);
+        int cardB = state.getFlippedCard(1);
+        if (game.checkMatch()) {
+            pairs[holder]++;
+            publish(BoardEvent.match(holder, cardA, cardB, pairs[holder]));
+            if (game.isGameOver()) {
+                publish(BoardEvent.end(winner()));
+            } else if (mode == Mode.TURNS) {
+                armTimeout(); // Same player goes again
+            }
+        } else {
+            game.flipBackCards();
+            publish(BoardEvent.flipBack(cardA, cardB));
+            nextTurn();
+        }
+        holder = -1;
+    }
+
+    /**
+     * Gives up the pick (or the turn) if nothing has happened since the timeout was armed
+     */
+    private void armTimeout() {
+        int token = ++timeoutToken;
+        scheduler.schedule(() -> tell(() -> {
+            if (token != timeoutToken || closed || game.isGameOver()) {
+                return;
+            }
+            if (game.getFlippedCardCount() == 1) {
+                int card = game.getState().getFlippedCard(0);
+                game.flipBackCards();
+                publish(BoardEvent.flipBack(card, -1));
+            }
+            holder = -1;
+            nextTurn();
+        }), PICK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void nextTurn() {
+        if (mode == Mode.TURNS) {
+            turn = (turn + 1) % pairs.length;
+            publish(BoardEvent.turn(turn));
+            armTimeout();
+        }
+    }
+
+    /**
+     * Finds the player with the most pairs
+     * @return The winner, or -1 if several players share the best count
+     */
+    private int winner() {
+        int best = 0;
+        for (int i = 1; i < pairs.length; i++) {
+            if (pairs[i] > pairs[best]) {
+                best = i;
+            }
+        }
+        for (int i = 0; i < pairs.length; i++) {
+            if (i != best && pairs[i] == pairs[best]) {
+                return -1;
+            }
+        }
+        return best;
+    }
+
+    private BoardEvent snapshot() {
+        GameBoard board = game.getBoard();
+        GameState state = game.getState();
+        int[] cards = new int[board.getTotalCards()];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = state.isFlipped(i) ? board.getValue(i) : -1;
+        }
+        return BoardEvent.snapshot(mode == Mode.TURNS ? turn : -1,
+                state.getFlippedCard(0), state.getFlippedCard(1), cards, pairs);
+    }
+
+    /**
+     * Adds an event to the current frame, scheduling the frame's broadcast if it is the first one
+     */
+    private void publish(BoardEvent event) {
+        batch.add(event);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            long untilNextFrame = FRAME_NANOS - System.nanoTime() % FRAME_NANOS;
+            scheduler.schedule(() -> tell(this::flush), untilNextFrame, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        List<BoardEvent> frame = Collections.unmodifiableList(new ArrayList<>(batch));
+        batch.clear();
+        BoardEvent snapshot = null;
+        for (Client client : clients) {
+            if (client.synced) {
+                client.deliver(frame);
+            } else {
+                if (snapshot == null) {
+                    snapshot = snapshot();
+                }
+                client.deliver(Collections.singletonList(snapshot));
+                client.synced = true;
+            }
+        }
+    }
+}
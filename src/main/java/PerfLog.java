@@ -0,0 +1,53 @@
+import javafx.animation.AnimationTimer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints timing measurements when the game is started with {@code -Dmemorygame.timing=true}
+ * (warm-up mode, {@code -Dmemorygame.warmup=true}, turns them on as well so its effect can be seen).
+ */
+public final class PerfLog {
+    private static final boolean ENABLED =
+            Boolean.getBoolean("memorygame.timing") || Boolean.getBoolean("memorygame.warmup");
+    private static volatile long launchNanos = System.nanoTime();
+    
+    private PerfLog() {
+    }
+    
+    /**
+     * Records the moment the application was launched; milestones are measured from here
+     */
+    public static void markLaunch() {
+        launchNanos = System.nanoTime();
+    }
+    
+    /**
+     * Logs how long something took
+     * @param label What was measured
+     * @param startNanos {@link System#nanoTime()} when it started
+     */
+    public static void elapsed(String label, long startNanos) {
+        if (ENABLED) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            System.out.printf("[timing] %s: %.1f ms%n", label, micros / 1000.0);
+        }
+    }
+    
+    /**
+     * Logs the time from launch until the next frame is produced.
+     * Must be called on the JavaFX application thread.
+     * @param label The milestone name
+     */
+    public static void sinceLaunchOnNextFrame(String label) {
+        if (!ENABLED) {
+            return;
+        }
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                elapsed(label, launchNanos);
+            }
+        }.start();
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A way of choosing cards, used by {@link SimulationEngine} to play games without a human.
+ * Each game gets its own {@link Player}, so strategies may keep per-game memory.
+ */
+public interface PlayerStrategy {
+    
+    /**
+     * Plays one game: picks cards and is told what they turned out to be
+     */
+    interface Player {
+        /**
+         * Chooses the next card to flip
+         * @param board The board being played (flipped cards are visible, others are not)
+         * @param firstPick Index of the card already face up this turn, or -1 for the first pick of a turn
+         * @return Index of a face-down, unmatched card
+         */
+        int pick(GameBoard board, int firstPick);
+        
+        /**
+         * Called after each flip with the card that was revealed
+         * @param index Position of the card
+         * @param value The card's value
+         */
+        void saw(int index, int value);
+    }
+    
+    /**
+     * Gets the name shown in simulation reports
+     * @return The strategy name
+     */
+    String getName();
+    
+    /**
+     * Creates a player for one game
+     * @param totalCards Number of cards on the board
+     * @param random Random source for the player's choices
+     * @return A new player
+     */
+    Player newPlayer(int totalCards, RandomGenerator random);
+    
+    /**
+     * A player that remembers nothing and flips random face-down cards
+     * @return The strategy
+     */
+    static PlayerStrategy random() {
+        return new PlayerStrategy() {
+            @Override
+            public String getName() {
+                return "random";
+            }
+            
+            @Override
+            public Player newPlayer(int totalCards, RandomGenerator random) {
+                return new MemoryPlayer(totalCards, 0, random);
+            }
+        };
+    }
+    
+    /**
+     * A player that remembers every card it has seen
+     * @return The strategy
+     */
+    static PlayerStrategy perfectMemory() {
+        return new PlayerStrategy() {
+            @Override
+            public String getName() {
+                return "perfect-memory";
+            }
+            
+            @Override
+            public Player newPlayer(int totalCards, RandomGenerator random) {
+                return new MemoryPlayer(totalCards, totalCards, random);
+            }
+        };
+    }
+    
+    /**
+     * A player that remembers only the most recently seen cards
+     * @param capacity Number of cards remembered; older sightings are forgotten
+     * @return The strategy
+     */
+    static PlayerStrategy limitedMemory(int capacity) {
+        return new PlayerStrategy() {
+            @Override
+            public String getName() {
+                return "memory-" + capacity;
+            }
+            
+            @Override
+            public Player newPlayer(int totalCards, RandomGenerator random) {
+                return new MemoryPlayer(totalCards, Math.min(capacity, totalCards), random);
+            }
+        };
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the events of a replay written by {@link ReplayWriter}, and can play them into a fresh
+ * {@link Game} on a virtual clock to check what a recorded game really scored.
+ */
+public class ReplayReader {
+    private static final int MAX_CARDS = 10_000; // Rejects absurd headers before allocating a board
+    
+    /**
+     * Kinds of recorded events
+     */
+    public enum EventType {
+        FLIP,      // A card was turned face up
+        CHECK,     // The two face-up cards were compared
+        FLIP_BACK  // Unmatched cards were turned back down
+    }
+    
+    private static final EventType[] TYPES = EventType.values();
+    
+    private final InputStream in;
+    private final int rows;
+    private final int cols;
+    private final long seed;
+    private EventType eventType;
+    private int cardIndex = -1;
+    private long elapsedMillis;
+    private boolean ended;
+    
+    /**
+     * Constructor for ReplayReader over an encoded replay
+     * @param replay The bytes produced by {@link ReplayWriter#toByteArray()}
+     * @throws IOException If the header is not a valid replay header
+     */
+    public ReplayReader(byte[] replay) throws IOException {
+        this(new ByteArrayInputStream(replay));
+    }
+    
+    /**
+     * Constructor for ReplayReader; reads the header right away
+     * @param in Stream positioned at the start of a replay
+     * @throws IOException If reading fails or the header is not a valid replay header
+     */
+    public ReplayReader(InputStream in) throws IOException {
+        this.in = in;
+        for (byte b : ReplayWriter.MAGIC) {
+            if (readByte() != b) {
+                throw new IOException("Not a replay");
+            }
+        }
+        int version = readByte();
+        if (version != ReplayWriter.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        rows = (int) readVarint();
+        cols = (int) readVarint();
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > MAX_CARDS) {
+            throw new IOException("Invalid board size " + rows + "x" + cols);
+        }
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | readByte();
+        }
+        seed = value;
+    }
+    
+    /**
+     * Plays a whole replay into a fresh game, with the game clock following the recorded times
+     * @param replay The encoded replay
+     * @return The game in the state the replay left it (finished, for a complete game)
+     * @throws IOException If the replay is malformed or contains a move the game does not allow
+     */
+    public static Game replay(byte[] replay) throws IOException {
+        return new ReplayReader(replay).replay();
+    }
+    
+    /**
+     * Plays the remaining events into a fresh game built from the header
+     * @return The game in the state the replay left it
+     * @throws IOException If the replay is malformed or contains a move the game does not allow
+     */
+    public Game replay() throws IOException {
+        long[] now = {0}; // Virtual clock in nanoseconds
+        Game game = new Game(rows, cols, seed, () -> now[0]);
+        while (next()) {
+            now[0] = TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+            switch (eventType) {
+                case FLIP:
+                    if (!game.flipCard(cardIndex)) {
+                        throw new IOException("Illegal flip of card " + cardIndex + " at " + elapsedMillis + " ms");
+                    }
+                    break;
+                case CHECK:
+                    if (game.getFlippedCardCount() != 2) {
+                        throw new IOException("Match check without two face-up cards at " + elapsedMillis + " ms");
+                    }
+                    game.checkMatch();
+                    break;
+                default:
+                    if (game.getFlippedCardCount() == 0) {
+                        throw new IOException("Flip-back without face-up cards at " + elapsedMillis + " ms");
+                    }
+                    game.flipBackCards();
+                    break;
+            }
+        }
+        return game;
+    }
+    
+    /**
+     * Advances to the next event
+     * @return true if there is an event, false once the end marker has been read
+     * @throws IOException If reading fails or the stream ends without an end marker
+     */
+    public boolean next() throws IOException {
+        if (ended) {
+            return false;
+        }
+        long header = readVarint();
+        int type = (int) (header & 3);
+        elapsedMillis += header >>> 2;
+        if (type == ReplayWriter.END) {
+            ended = true;
+            eventType = null;
+            return false;
+        }
+        eventType = TYPES[type];
+        cardIndex = eventType == EventType.FLIP ? (int) readVarint() : -1;
+        return true;
+    }
+    
+    /**
+     * Gets the type of the current event
+     * @return The event type, or null before the first or after the last event
+     */
+    public EventType getEventType() {
+        return eventType;
+    }
+    
+    /**
+     * Gets the card of the current event
+     * @return The card index for a flip, -1 otherwise
+     */
+    public int getCardIndex() {
+        return cardIndex;
+    }
+    
+    /**
+     * Gets when the current event happened
+     * @return Milliseconds since the game started
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    /**
+     * Gets the number of board rows
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Gets the number of board columns
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+    
+    /**
+     * Gets the seed the board was shuffled with
+     * @return The board seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+    
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Replay is truncated");
+        }
+        return b;
+    }
+}
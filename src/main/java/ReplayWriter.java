@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a {@link Game} into the compact binary replay format read by {@link ReplayReader}.
+ * <p>
+ * Format: the magic bytes {@code MGR}, a version byte, the board rows and columns as varints and
+ * the 8-byte board seed, followed by one record per event. Each record starts with a varint holding
+ * the milliseconds since the previous event shifted left by 2, with the event type in the low 2 bits;
+ * a flip is followed by the card index as a varint. An end marker closes the stream.
+ * A typical 4x4 game takes about 120 bytes.
+ */
+public class ReplayWriter implements GameEventListener {
+    static final byte[] MAGIC = {'M', 'G', 'R'};
+    static final int VERSION = 1;
+    
+    // Event types (low 2 bits of each record header)
+    static final int FLIP = 0;
+    static final int CHECK = 1;
+    static final int FLIP_BACK = 2;
+    static final int END = 3;
+    
+    private byte[] buffer = new byte[64];
+    private int length;
+    private long lastMillis; // Time of the previous event; deltas are taken from whole milliseconds
+    
+    /**
+     * Starts recording a game; must be called before the first move
+     * @param game The game to record
+     * @return The writer now attached to the game
+     */
+    public static ReplayWriter record(Game game) {
+        ReplayWriter writer = new ReplayWriter(game.getBoard().getRows(), game.getBoard().getCols(), game.getSeed());
+        game.setEventListener(writer);
+        return writer;
+    }
+    
+    /**
+     * Constructor for ReplayWriter; writes the header
+     * @param rows Board rows
+     * @param cols Board columns
+     * @param seed Seed the board was shuffled with
+     */
+    public ReplayWriter(int rows, int cols, long seed) {
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(VERSION);
+        writeVarint(rows);
+        writeVarint(cols);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (seed >>> shift));
+        }
+    }
+    
+    @Override
+    public void onFlip(int cardIndex, long elapsedNanos) {
+        writeEvent(FLIP, elapsedNanos);
+        writeVarint(cardIndex);
+    }
+    
+    @Override
+    public void onCheck(boolean matched, long elapsedNanos) {
+        // The outcome follows from the board, so it is not stored
+        writeEvent(CHECK, elapsedNanos);
+    }
+    
+    @Override
+    public void onFlipBack(long elapsedNanos) {
+        writeEvent(FLIP_BACK, elapsedNanos);
+    }
+    
+    /**
+     * Gets the replay recorded so far, closed with an end marker
+     * @return The encoded replay
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = Arrays.copyOf(buffer, length + 1);
+        bytes[length] = END; // Header varint with a zero delta and the END type
+        return bytes;
+    }
+    
+    /**
+     * Writes the replay recorded so far, closed with an end marker
+     * @param out Where to write it
+     * @throws IOException If writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+    
+    private void writeEvent(int type, long elapsedNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long delta = Math.max(0, millis - lastMillis);
+        lastMillis += delta;
+        writeVarint(delta << 2 | type);
+    }
+    
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+    
+    private void writeByte(int b) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, length * 2);
+        }
+        buffer[length++] = (byte) b;
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Implemented by controllers whose view is kept and reused by {@link SceneManager}.
+ * A view is parsed once, so per-visit setup belongs in {@link #onShow()} rather than in {@code initialize}.
+ */
+public interface SceneLifecycle {
+    
+    /**
+     * Called every time the view becomes the visible one
+     */
+    void onShow();
+    
+    /**
+     * Called when another view replaces this one; stop timers and background work here
+     */
+    default void onHide() {
+    }
+}
@@ -1,26 +1,124 @@
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A helper class to load FXML files and switch scenes.
  * Manages navigation between different views in the application.
+ * Each view is parsed once and kept; navigating swaps the root of a single {@link Scene}
+ * and tells the controllers through {@link SceneLifecycle} when they are shown and hidden.
  */
 public class SceneManager {
+    // Leaderboard cache sizing: scores kept per board, board sizes kept, and how long a list is trusted
+    private static final int LEADERBOARD_TOP_N = 100;
+    private static final int LEADERBOARD_MAX_BOARDS = 16;
+    private static final long LEADERBOARD_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    
+    private static final String MAIN_MENU_VIEW = "/views/main_menu.fxml";
+    private static final String GAME_VIEW = "/views/game.fxml";
+    private static final String LEADERBOARD_VIEW = "/views/leaderboard.fxml";
+    
     private Stage primaryStage;
     private static SceneManager instance;
+    private Scene scene; // The only scene; created on first navigation
+    private final Map<String, View> views = new HashMap<>(); // Parsed views by FXML path
+    private View currentView;
+    private boolean gameShownBefore;
+    private Difficulty difficulty = Difficulty.CLASSIC; // Preset of the current (or next) game
+    private final ScoreDatabase scoreDatabase;
+    private final LeaderboardCache leaderboardCache;
+    private final WindowedLeaderboard windowedLeaderboard;
+    private final ScoreVerifier scoreVerifier; // Replays every submission before it is saved
+    private final ScoreSubmissionService scoreSubmissionService;
+    private final DeckPreloader deckPreloader;
     
     /**
-     * Constructor for SceneManager
+     * A parsed view: its root node and controller
+     */
+    private static final class View {
+        final Parent root;
+        final Object controller;
+        
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+    
+    /**
+     * Constructor for SceneManager without a score database
      * @param primaryStage The main stage of the JavaFX application
      */
     public SceneManager(Stage primaryStage) {
+        this(primaryStage, null);
+    }
+    
+    /**
+     * Constructor for SceneManager
+     * @param primaryStage The main stage of the JavaFX application
+     * @param scoreDatabase Where scores are stored, or null to keep them in memory only
+     */
+    public SceneManager(Stage primaryStage, ScoreDatabase scoreDatabase) {
         this.primaryStage = primaryStage;
+        this.scoreDatabase = scoreDatabase;
+        this.leaderboardCache = new LeaderboardCache(scoreDatabase, LEADERBOARD_TOP_N,
+                LEADERBOARD_MAX_BOARDS, LEADERBOARD_TTL_MILLIS);
+        this.windowedLeaderboard = new WindowedLeaderboard(scoreDatabase, LEADERBOARD_TOP_N);
+        this.scoreVerifier = new ScoreVerifier();
+        this.scoreSubmissionService = new ScoreSubmissionService(submissions -> {
+            List<CompletableFuture<Score>> checks = new ArrayList<>(submissions.size());
+            for (ScoreSubmissionService.Submission submission : submissions) {
+                checks.add(scoreVerifier.submit(submission.getScore(), submission.getReplay()));
+            }
+            List<Score> scores = new ArrayList<>(submissions.size());
+            for (int i = 0; i < checks.size(); i++) {
+                try {
+                    scores.add(checks.get(i).get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof ScoreVerifier.RejectedScoreException)) {
+                        throw e; // Verifier saturated or closed: the whole batch is retried
+                    }
+                    // Acknowledged with the rest of the batch, so a bad score is not retried forever
+                    System.err.println("Dropping score " + submissions.get(i).getId() + ": " + e.getCause().getMessage());
+                }
+            }
+            leaderboardCache.saveAll(scores);
+            windowedLeaderboard.addAll(scores); // Ranked only once saved
+        }, spoolFile());
+        this.deckPreloader = new DeckPreloader(ImageCache.getShared());
         instance = this;
     }
     
+    /**
+     * Gets where undelivered scores are spooled ({@code -Dmemorygame.spool} overrides the default)
+     * @return Path of the spool file
+     */
+    private static Path spoolFile() {
+        String configured = System.getProperty("memorygame.spool");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".memorygame", "score-spool.log");
+    }
+    
     /**
      * Gets the singleton instance of SceneManager
      * @return The SceneManager instance
@@ -30,68 +128,205 @@ public class SceneManager {
     }
     
     /**
-     * Loads and displays the main menu scene
+     * Gets the score database
+     * @return The ScoreDatabase, or null if scores are only kept in memory
+     */
+    public ScoreDatabase getScoreDatabase() {
+        return scoreDatabase;
+    }
+    
+    /**
+     * Gets the shared leaderboard cache
+     * @return The LeaderboardCache instance
+     */
+    public LeaderboardCache getLeaderboardCache() {
+        return leaderboardCache;
+    }
+    
+    /**
+     * Gets the daily, weekly and all-time leaderboards
+     * @return The WindowedLeaderboard instance
+     */
+    public WindowedLeaderboard getWindowedLeaderboard() {
+        return windowedLeaderboard;
+    }
+    
+    /**
+     * Gets the service that delivers finished-game scores
+     * @return The ScoreSubmissionService instance
+     */
+    public ScoreSubmissionService getScoreSubmissionService() {
+        return scoreSubmissionService;
+    }
+    
+    /**
+     * Gets the verifier that checks submitted scores against their replays
+     * @return The ScoreVerifier instance
+     */
+    public ScoreVerifier getScoreVerifier() {
+        return scoreVerifier;
+    }
+    
+    /**
+     * Gets the background loader for deck images
+     * @return The DeckPreloader instance
+     */
+    public DeckPreloader getDeckPreloader() {
+        return deckPreloader;
+    }
+    
+    /**
+     * Displays the main menu scene
      */
     public void showMainMenu() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/main_menu.fxml"));
-            Scene scene = new Scene(loader.load(), 800, 600);
-            scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            
-            // Set SceneManager in the controller if it's a MainMenuController
-            Object controller = loader.getController();
-            if (controller instanceof MainMenuController) {
-                ((MainMenuController) controller).setSceneManager(this);
-            }
-            
-            primaryStage.setTitle("Memory Game - Main Menu");
-            primaryStage.setScene(scene);
-        } catch (IOException e) {
-            e.printStackTrace();
+        show(MAIN_MENU_VIEW, "Memory Game - Main Menu");
+    }
+    
+    /**
+     * Starts a game with the given preset, showing a progress screen until its deck's images are decoded
+     * @param config Board size and deck to play
+     */
+    public void showGame(Difficulty config) {
+        difficulty = config;
+        if (!deckPreloader.isReady(config)) {
+            showDeckLoading(config);
+            deckPreloader.whenReady(config).thenRun(() -> Platform.runLater(() -> {
+                // The player may have gone back to the menu and picked another preset meanwhile
+                if (difficulty == config && currentView == null) {
+                    showGame(config);
+                }
+            }));
+            return;
         }
+        show(GAME_VIEW, "Memory Game - " + config);
     }
     
     /**
-     * Loads and displays the game scene
+     * Gets the preset of the current game, or of the last one played
+     * @return The difficulty
      */
-    public void showGame() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/game.fxml"));
-            Scene scene = new Scene(loader.load(), 800, 600);
-            scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            
-            // Set SceneManager in the controller
-            Object controller = loader.getController();
-            if (controller instanceof GameController) {
-                ((GameController) controller).setSceneManager(this);
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+    
+    /**
+     * Displays the leaderboard scene
+     */
+    public void showLeaderboard() {
+        show(LEADERBOARD_VIEW, "Memory Game - Leaderboard");
+    }
+    
+    /**
+     * Shows a progress indicator while a preset's deck is being decoded
+     * @param config The preset being loaded
+     */
+    private void showDeckLoading(Difficulty config) {
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.progressProperty().bind(deckPreloader.progressProperty(config));
+        Label label = new Label("Loading cards...");
+        label.getStyleClass().add("subtitle-label");
+        VBox root = new VBox(20, progress, label);
+        root.setAlignment(Pos.CENTER);
+        
+        hideCurrentView();
+        setRoot(root);
+        primaryStage.setTitle("Memory Game");
+    }
+    
+    /**
+     * Switches to a view, parsing its FXML only the first time
+     * @param fxml Resource path of the view
+     * @param title Window title while the view is shown
+     */
+    private void show(String fxml, String title) {
+        long start = System.nanoTime();
+        View view = views.get(fxml);
+        boolean parsed = false;
+        if (view == null) {
+            try {
+                view = loadView(fxml);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
             }
-            
-            primaryStage.setTitle("Memory Game");
-            primaryStage.setScene(scene);
-        } catch (IOException e) {
-            e.printStackTrace();
+            views.put(fxml, view);
+            parsed = true;
+        }
+        
+        hideCurrentView();
+        setRoot(view.root);
+        primaryStage.setTitle(title);
+        currentView = view;
+        if (view.controller instanceof SceneLifecycle) {
+            ((SceneLifecycle) view.controller).onShow();
+        }
+        PerfLog.elapsed("navigate " + fxml + (parsed ? " (parsed)" : " (cached)"), start);
+        if (fxml.equals(GAME_VIEW) && !gameShownBefore) {
+            gameShownBefore = true;
+            PerfLog.sinceLaunchOnNextFrame("time to first game");
         }
     }
     
     /**
-     * Loads and displays the leaderboard scene
+     * Parses the game and leaderboard views on background threads.
+     * Finished views are handed back on the JavaFX application thread; a view the player opens
+     * before its warm-up is done is simply parsed on demand as usual.
      */
-    public void showLeaderboard() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/leaderboard.fxml"));
-            Scene scene = new Scene(loader.load(), 800, 600);
+    public void warmUp() {
+        ExecutorService warmers = BackgroundExecutors.newBoundedExecutor("view-warmup", 2);
+        for (String fxml : new String[] { GAME_VIEW, LEADERBOARD_VIEW }) {
+            warmers.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    // Nodes may be built off the FX thread as long as they are not in a showing scene yet
+                    View view = loadView(fxml);
+                    PerfLog.elapsed("warm-up parse " + fxml, start);
+                    Platform.runLater(() -> views.putIfAbsent(fxml, view));
+                } catch (IOException | RuntimeException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        warmers.shutdown();
+    }
+    
+    /**
+     * Parses a view and hands this SceneManager to its controller
+     * @param fxml Resource path of the view
+     * @return The parsed view
+     */
+    private View loadView(String fxml) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
+        Parent root = loader.load();
+        Object controller = loader.getController();
+        if (controller instanceof MainMenuController) {
+            ((MainMenuController) controller).setSceneManager(this);
+        } else if (controller instanceof GameController) {
+            ((GameController) controller).setSceneManager(this);
+        } else if (controller instanceof LeaderboardController) {
+            ((LeaderboardController) controller).setSceneManager(this);
+        }
+        return new View(root, controller);
+    }
+    
+    private void hideCurrentView() {
+        if (currentView != null && currentView.controller instanceof SceneLifecycle) {
+            ((SceneLifecycle) currentView.controller).onHide();
+        }
+        currentView = null;
+    }
+    
+    /**
+     * Puts a root into the single scene, creating the scene (and applying the stylesheet) the first time
+     * @param root The new root node
+     */
+    private void setRoot(Parent root) {
+        if (scene == null) {
+            scene = new Scene(root, 800, 600);
             scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            
-            // Set SceneManager in the controller
-            Object controller = loader.getController();
-            if (controller instanceof LeaderboardController) {
-                ((LeaderboardController) controller).setSceneManager(this);
-            }
-            
-            primaryStage.setTitle("Memory Game - Leaderboard");
             primaryStage.setScene(scene);
-        } catch (IOException e) {
-            e.printStackTrace();
+        } else {
+            scene.setRoot(root);
         }
     }
 }
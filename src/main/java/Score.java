@@ -1,29 +1,91 @@
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A simple model representing a leaderboard entry.
  * Contains player name, score, moves, and time information.
- * Implements JavaFX properties for table binding.
+ * Plain Java with no JavaFX types, so it can be used by headless code such as {@link ScoreVerifier};
+ * table columns bind to its getters through PropertyValueFactory.
  */
 public class Score {
+    // Board size (number of cards) assumed when none is given: the classic 4x4 board
+    public static final int DEFAULT_BOARD_SIZE = 16;
+    
+    // Game ids handed out by this process: a random prefix plus a counter, unique without a UUID per score
+    private static final String ID_PREFIX = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36) + "-";
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    
     private String playerName;
     private int score;
     private int moves;
     private long timeInSeconds;
+    private int boardSize;
+    private long achievedAt; // When the game was finished, in epoch milliseconds
+    private String gameId; // Tells two games with identical results apart
     
     /**
-     * Constructor for Score
+     * Constructor for Score on the default 4x4 board
      * @param playerName The name of the player
      * @param score The final score
      * @param moves Number of moves taken
      * @param timeInSeconds Time taken in seconds
      */
     public Score(String playerName, int score, int moves, long timeInSeconds) {
+        this(playerName, score, moves, timeInSeconds, DEFAULT_BOARD_SIZE);
+    }
+    
+    /**
+     * Constructor for Score
+     * @param playerName The name of the player
+     * @param score The final score
+     * @param moves Number of moves taken
+     * @param timeInSeconds Time taken in seconds
+     * @param boardSize Number of cards on the board the game was played on
+     */
+    public Score(String playerName, int score, int moves, long timeInSeconds, int boardSize) {
+        this(playerName, score, moves, timeInSeconds, boardSize, System.currentTimeMillis());
+    }
+    
+    /**
+     * Constructor for Score with a known finishing time
+     * @param playerName The name of the player
+     * @param score The final score
+     * @param moves Number of moves taken
+     * @param timeInSeconds Time taken in seconds
+     * @param boardSize Number of cards on the board the game was played on
+     * @param achievedAt When the game was finished, in epoch milliseconds
+     */
+    public Score(String playerName, int score, int moves, long timeInSeconds, int boardSize, long achievedAt) {
+        this(playerName, score, moves, timeInSeconds, boardSize, achievedAt, newGameId());
+    }
+    
+    /**
+     * Constructor for Score of a known game
+     * @param playerName The name of the player
+     * @param score The final score
+     * @param moves Number of moves taken
+     * @param timeInSeconds Time taken in seconds
+     * @param boardSize Number of cards on the board the game was played on
+     * @param achievedAt When the game was finished, in epoch milliseconds
+     * @param gameId Id of the finished game; the same game keeps the same id wherever the score is stored
+     */
+    public Score(String playerName, int score, int moves, long timeInSeconds, int boardSize, long achievedAt,
+                 String gameId) {
         this.playerName = playerName;
         this.score = score;
         this.moves = moves;
         this.timeInSeconds = timeInSeconds;
+        this.boardSize = boardSize;
+        this.achievedAt = achievedAt;
+        this.gameId = gameId;
+    }
+    
+    /**
+     * Creates an id for a game that has none yet
+     * @return A new, unique game id
+     */
+    public static String newGameId() {
+        return ID_PREFIX + Long.toString(ID_SEQUENCE.incrementAndGet(), 36);
     }
     
     /**
@@ -58,6 +120,30 @@ public class Score {
         return timeInSeconds;
     }
     
+    /**
+     * Gets the board size
+     * @return Number of cards on the board
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+    
+    /**
+     * Gets when the game was finished
+     * @return Epoch milliseconds
+     */
+    public long getAchievedAt() {
+        return achievedAt;
+    }
+    
+    /**
+     * Gets the id of the game the score comes from
+     * @return Game id
+     */
+    public String getGameId() {
+        return gameId;
+    }
+    
     /**
      * Formats time as MM:SS
      * @return Formatted time string
@@ -67,13 +153,5 @@ public class Score {
         long seconds = timeInSeconds % 60;
         return String.format("%02d:%02d", minutes, seconds);
     }
-    
-    /**
-     * Gets formatted time as a property for JavaFX table binding
-     * @return StringProperty containing formatted time
-     */
-    public StringProperty formattedTimeProperty() {
-        return new SimpleStringProperty(getFormattedTime());
-    }
 }
 
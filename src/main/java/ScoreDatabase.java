@@ -1,76 +1,551 @@
-
-import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * JDBC-backed score storage.
+ * Connections come from a small {@link ConnectionPool}, and {@link #insertScore(Score)} only queues the
+ * score: a background writer groups pending scores into JDBC batches, flushing when a batch is full or
+ * when the flush interval has passed. Call {@link #flush()} or {@link #close()} to make sure queued
+ * scores reach the database. A batch the database keeps rejecting is held back and retried later rather than
+ * dropped, and flush() and close() report it. For MySQL, add {@code rewriteBatchedStatements=true} to the url so a
+ * batch goes over the wire as one multi-row INSERT.
+ * <p>
+ * Reads are served from composite indexes and use keyset pagination (never OFFSET), so they
+ * stay fast as the table grows. Reads only see scores the writer has already flushed.
+ */
+public class ScoreDatabase implements AutoCloseable {
+    private static final String INSERT_SQL =
+            "INSERT INTO scores (player, points, moves, time_seconds, board_size, created_at, game_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS =
+            "SELECT id, player, points, moves, time_seconds, board_size, created_at, game_id FROM scores ";
+    // Rows are ranked by points, newest first on ties; id makes the order total so keyset paging is stable
+    private static final String RANK_ORDER = " ORDER BY points DESC, id DESC LIMIT ?";
+    private static final String AFTER_KEY = "(points < ? OR (points = ? AND id < ?))";
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // Queued after real scores to make the writer send its current batch immediately
+    private static final Score FLUSH_MARKER = new Score("", 0, 0, 0);
 
-public class ScoreDatabase {
-    private final String url;
-    private final String user;
-    private final String password;
+    private final ConnectionPool pool;
+    private final ScoreMapper mapper = ScoreMapper.DEFAULT;
+    private final BlockingQueue<Score> pending; // Bounded, so bursts push back on callers instead of growing forever
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private final AtomicLong accepted = new AtomicLong(); // Scores handed to insertScore
+    private final AtomicLong completed = new AtomicLong(); // Scores written, or refused by insertScore
+    private final AtomicInteger unwrittenCount = new AtomicInteger(); // Size of unwritten, for flush()
+    private final Object progressLock = new Object();
+    // insertScore holds the read lock from the closing check until the score is queued, so close() sees every score
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+    private volatile boolean closing; // Set under the write lock
+    private volatile SQLException lastFailure;
+    private volatile boolean paused; // The writer holds back a full queue's worth of scores and takes no more
+
+    // Writer-thread state
+    private final List<Score> unwritten = new ArrayList<>(); // Scores whose batch failed every attempt; retried later
+    private long retryAt;
 
     public ScoreDatabase(String url, String user, String password) {
-        this.url = Objects.requireNonNull(url);
-        this.user = user;
-        this.password = password;
+        this(url, user, password, 4, 1024, 50, 200);
+    }
+
+    /**
+     * Constructor for ScoreDatabase
+     * @param url JDBC url (an in-memory url such as {@code jdbc:h2:mem:scores;DB_CLOSE_DELAY=-1} works for tests)
+     * @param user Database user
+     * @param password Database password
+     * @param poolSize Maximum number of open connections
+     * @param queueCapacity Maximum number of scores waiting to be written
+     * @param batchSize Maximum number of scores per INSERT batch
+     * @param flushIntervalMillis Longest time a queued score waits for its batch to fill up
+     */
+    public ScoreDatabase(String url, String user, String password,
+                         int poolSize, int queueCapacity, int batchSize, long flushIntervalMillis) {
+        Objects.requireNonNull(url);
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batchSize and queueCapacity must be positive");
+        }
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException ignored) {
             // driver may be provided by the runtime
         }
+        this.pool = new ConnectionPool(url, user, password, poolSize, TimeUnit.SECONDS.toMillis(30));
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.writer = new Thread(this::runWriter, "score-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
     }
 
-    private java.sql.Connection getConnection() throws java.sql.SQLException {
-        return java.sql.DriverManager.getConnection(url, user, password);
-    }
-
-    public void init() throws java.sql.SQLException {
+    public void init() throws SQLException {
         String ddl = "CREATE TABLE IF NOT EXISTS scores ("
                 + "id INT AUTO_INCREMENT PRIMARY KEY, "
                 + "player VARCHAR(255) NOT NULL, "
                 + "points INT NOT NULL, "
-                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-        try (java.sql.Connection c = getConnection();
-             java.sql.Statement s = c.createStatement()) {
-            s.executeUpdate(ddl);
+                + "moves INT NOT NULL DEFAULT 0, "
+                + "time_seconds BIGINT NOT NULL DEFAULT 0, "
+                + "board_size INT NOT NULL DEFAULT " + Score.DEFAULT_BOARD_SIZE + ", "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "game_id VARCHAR(64))";
+        pool.withConnection(c -> {
+            try (Statement s = c.createStatement()) {
+                s.executeUpdate(ddl);
+                // Tables created before these columns existed are upgraded in place
+                addColumnIfMissing(s, "moves", "INT NOT NULL DEFAULT 0");
+                addColumnIfMissing(s, "time_seconds", "BIGINT NOT NULL DEFAULT 0");
+                addColumnIfMissing(s, "board_size", "INT NOT NULL DEFAULT " + Score.DEFAULT_BOARD_SIZE);
+                addColumnIfMissing(s, "game_id", "VARCHAR(64)");
+
+                // Ascending indexes are scanned backwards for the DESC orderings below
+                Set<String> indexes = existingIndexes(c);
+                createIndexIfMissing(s, indexes, "idx_scores_board_rank", "board_size, points, id"); // topScores, page per board
+                createIndexIfMissing(s, indexes, "idx_scores_player_rank", "player, points, id"); // bestFor
+                createIndexIfMissing(s, indexes, "idx_scores_rank", "points, id"); // page across all boards
+            }
+            return null;
+        });
+    }
+
+    private static Set<String> existingIndexes(Connection c) throws SQLException {
+        Set<String> names = new HashSet<>();
+        DatabaseMetaData meta = c.getMetaData();
+        // Drivers disagree on identifier case, so look the table up both ways
+        for (String table : new String[] { "scores", "SCORES" }) {
+            try (ResultSet rs = meta.getIndexInfo(c.getCatalog(), null, table, false, true)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    if (name != null) {
+                        names.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void createIndexIfMissing(Statement s, Set<String> existing, String name, String columns)
+            throws SQLException {
+        if (!existing.contains(name)) {
+            s.executeUpdate("CREATE INDEX " + name + " ON scores (" + columns + ")");
+        }
+    }
+
+    private static void addColumnIfMissing(Statement s, String column, String definition) throws SQLException {
+        try (ResultSet rs = s.executeQuery("SELECT * FROM scores WHERE 1 = 0")) {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                if (meta.getColumnName(i).equalsIgnoreCase(column)) {
+                    return;
+                }
+            }
+        }
+        s.executeUpdate("ALTER TABLE scores ADD COLUMN " + column + " " + definition);
+    }
+
+    /**
+     * Queues a score for the background writer.
+     * Blocks for up to a few seconds while the queue is full.
+     * @param score The score to save
+     * @throws SQLException If the database is closed or the queue stayed full
+     */
+    public void insertScore(Score score) throws SQLException {
+        Objects.requireNonNull(score);
+        admission.readLock().lock();
+        try {
+            if (closing) {
+                throw new SQLException("ScoreDatabase is closed");
+            }
+            // Count before queueing so a concurrent flush() never sees completed > accepted
+            accepted.incrementAndGet();
+            if (!pending.offer(score, 5, TimeUnit.SECONDS)) {
+                markCompleted(1);
+                throw new SQLException("Score write queue is full");
+            }
+        } catch (InterruptedException e) {
+            markCompleted(1);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while queueing score", e);
+        } finally {
+            admission.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes scores right away as one batch in a single transaction, bypassing the queue
+     * @param scores The scores to save
+     * @throws SQLException If the batch could not be written (nothing is saved in that case)
+     */
+    public void insertScores(Collection<Score> scores) throws SQLException {
+        if (scores.isEmpty()) {
+            return;
         }
+        pool.withConnection(c -> {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(INSERT_SQL)) {
+                for (Score score : scores) {
+                    mapper.bind(ps, score);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+            return null;
+        });
     }
 
-    public void insertScore(Score score) throws java.sql.SQLException {
-        String player = extractString(score, "getName", "getPlayer", "getUsername", "name");
-        int points = extractInt(score, "getScore", "getPoints", "score", "points");
+    /**
+     * Gets the highest scores for one board size
+     * @param boardSize Number of cards on the board
+     * @param limit Maximum number of scores to return
+     * @return Scores ordered from best to worst
+     */
+    public List<Score> topScores(int boardSize, int limit) throws SQLException {
+        checkLimit(limit);
+        return query(SELECT_COLUMNS + "WHERE board_size = ?" + RANK_ORDER, ps -> {
+            ps.setInt(1, boardSize);
+            ps.setInt(2, limit);
+        }).getScores();
+    }
 
-        String sql = "INSERT INTO scores (player, points) VALUES (?, ?)";
-        try (java.sql.Connection c = getConnection();
-             java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
+    /**
+     * Gets the highest scores for one board size achieved since a point in time
+     * @param boardSize Number of cards on the board
+     * @param sinceMillis Earliest finishing time included, in epoch milliseconds
+     * @param limit Maximum number of scores to return
+     * @return Scores ordered from best to worst
+     */
+    public List<Score> topScoresSince(int boardSize, long sinceMillis, int limit) throws SQLException {
+        checkLimit(limit);
+        return query(SELECT_COLUMNS + "WHERE board_size = ? AND created_at >= ?" + RANK_ORDER, ps -> {
+            ps.setInt(1, boardSize);
+            ps.setTimestamp(2, new Timestamp(sinceMillis));
+            ps.setInt(3, limit);
+        }).getScores();
+    }
+
+    /**
+     * Gets a player's best score across all board sizes
+     * @param player The player name
+     * @return The best score, or null if the player has none
+     */
+    public Score bestFor(String player) throws SQLException {
+        List<Score> scores = query(SELECT_COLUMNS + "WHERE player = ?" + RANK_ORDER, ps -> {
             ps.setString(1, player);
-            ps.setInt(2, points);
-            ps.executeUpdate();
+            ps.setInt(2, 1);
+        }).getScores();
+        return scores.isEmpty() ? null : scores.get(0);
+    }
+
+    /**
+     * Gets one page of the overall ranking
+     * @param afterKey The key of the previous page, or null for the first page
+     * @param limit Maximum number of scores on the page
+     * @return The page and the key to pass in for the next one
+     */
+    public Page page(PageKey afterKey, int limit) throws SQLException {
+        checkLimit(limit);
+        if (afterKey == null) {
+            return query(SELECT_COLUMNS + RANK_ORDER, ps -> ps.setInt(1, limit));
+        }
+        return query(SELECT_COLUMNS + "WHERE " + AFTER_KEY + RANK_ORDER, ps -> {
+            bindKey(ps, 1, afterKey);
+            ps.setInt(4, limit);
+        });
+    }
+
+    /**
+     * Gets one page of the ranking for a single board size
+     * @param boardSize Number of cards on the board
+     * @param afterKey The key of the previous page, or null for the first page
+     * @param limit Maximum number of scores on the page
+     * @return The page and the key to pass in for the next one
+     */
+    public Page page(int boardSize, PageKey afterKey, int limit) throws SQLException {
+        checkLimit(limit);
+        if (afterKey == null) {
+            return query(SELECT_COLUMNS + "WHERE board_size = ?" + RANK_ORDER, ps -> {
+                ps.setInt(1, boardSize);
+                ps.setInt(2, limit);
+            });
+        }
+        return query(SELECT_COLUMNS + "WHERE board_size = ? AND " + AFTER_KEY + RANK_ORDER, ps -> {
+            ps.setInt(1, boardSize);
+            bindKey(ps, 2, afterKey);
+            ps.setInt(5, limit);
+        });
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private Page query(String sql, Binder binder) throws SQLException {
+        return pool.withConnection(c -> {
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                binder.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<Score> scores = new ArrayList<>();
+                    PageKey last = null;
+                    while (rs.next()) {
+                        Timestamp createdAt = rs.getTimestamp("created_at");
+                        String gameId = rs.getString("game_id");
+                        scores.add(new Score(rs.getString("player"), rs.getInt("points"), rs.getInt("moves"),
+                                rs.getLong("time_seconds"), rs.getInt("board_size"),
+                                createdAt == null ? 0 : createdAt.getTime(),
+                                gameId != null ? gameId : "#" + rs.getLong("id"))); // Rows saved before games had ids
+                        last = new PageKey(rs.getInt("points"), rs.getLong("id"));
+                    }
+                    return new Page(scores, last);
+                }
+            }
+        });
+    }
+
+    private static void bindKey(PreparedStatement ps, int firstIndex, PageKey key) throws SQLException {
+        ps.setInt(firstIndex, key.getPoints());
+        ps.setInt(firstIndex + 1, key.getPoints());
+        ps.setLong(firstIndex + 2, key.getId());
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
         }
     }
 
-    private static String extractString(Object obj, String... methodNames) {
-        if (obj == null) return "unknown";
-        for (String mName : methodNames) {
+    /**
+     * Position in the ranking: the points and row id of the last score on a page
+     */
+    public static final class PageKey {
+        private final int points;
+        private final long id;
+
+        public PageKey(int points, long id) {
+            this.points = points;
+            this.id = id;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * One page of scores plus the key of its last row
+     */
+    public static final class Page {
+        private final List<Score> scores;
+        private final PageKey lastKey;
+
+        Page(List<Score> scores, PageKey lastKey) {
+            this.scores = Collections.unmodifiableList(scores);
+            this.lastKey = lastKey;
+        }
+
+        public List<Score> getScores() {
+            return scores;
+        }
+
+        /**
+         * Gets the key to request the following page with
+         * @return The key of the last row, or null if the page was empty
+         */
+        public PageKey getLastKey() {
+            return lastKey;
+        }
+    }
+
+    /**
+     * Blocks until every score queued before this call has been tried at least once
+     * @throws InterruptedException If interrupted while waiting
+     * @throws SQLException If some scores could not be written yet; the writer keeps retrying them
+     */
+    public void flush() throws InterruptedException, SQLException {
+        long target = accepted.get();
+        if (completed.get() + unwrittenCount.get() < target) {
+            pending.offer(FLUSH_MARKER); // If the queue is full the writer is busy anyway
+            synchronized (progressLock) {
+                while (completed.get() + unwrittenCount.get() < target && writer.isAlive() && !paused) {
+                    progressLock.wait(100);
+                }
+            }
+        }
+        checkUnwritten("are still waiting to be written");
+    }
+
+    /**
+     * Stops accepting scores, writes everything still queued and closes the pool.
+     * If interrupted while waiting, the writer still finishes in the background and the interrupt flag is kept.
+     * @throws SQLException If some scores could not be written and are lost
+     */
+    @Override
+    public void close() throws SQLException {
+        admission.writeLock().lock();
+        try {
+            if (closing) {
+                return;
+            }
+            closing = true; // Every accepted score is already queued
+        } finally {
+            admission.writeLock().unlock();
+        }
+        pending.offer(FLUSH_MARKER);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        checkUnwritten("could not be written and were lost");
+    }
+
+    private void checkUnwritten(String what) throws SQLException {
+        int count = unwrittenCount.get();
+        if (count > 0) {
+            throw new SQLException(count + " scores " + what, lastFailure);
+        }
+    }
+
+    /**
+     * Background writer loop: collects scores into batches and writes them
+     */
+    private void runWriter() {
+        List<Score> batch = new ArrayList<>(batchSize);
+        while (!closing || !pending.isEmpty()) {
             try {
-                Method m = obj.getClass().getMethod(mName);
-                Object val = m.invoke(obj);
-                if (val != null) return val.toString();
-            } catch (Exception ignored) { }
+                if (!unwritten.isEmpty() && System.nanoTime() - retryAt >= 0) {
+                    retryUnwritten();
+                }
+                // As many scores held back as the queue holds: stop taking more, so insertScore pushes back
+                paused = unwritten.size() >= queueCapacity && !closing;
+                if (paused) {
+                    markCompleted(0); // Let a waiting flush() report the held-back scores
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(RETRY_DELAY_NANOS));
+                    continue;
+                }
+                Score next = pending.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    continue;
+                }
+
+                // Keep filling the batch until it is full, the interval passes or someone asks for a flush
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (next != null && next != FLUSH_MARKER) {
+                    batch.add(next);
+                    if (batch.size() >= batchSize) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    next = (remaining > 0 && !closing)
+                            ? pending.poll(remaining, TimeUnit.NANOSECONDS)
+                            : pending.poll();
+                }
+
+                if (!batch.isEmpty()) {
+                    if (writeWithRetry(batch)) {
+                        markCompleted(batch.size());
+                    } else {
+                        holdBack(batch);
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Only close() should stop the writer, and it never interrupts it
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        try {
+            if (!unwritten.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                retryUnwritten(); // Last chance before close() reports them lost
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+    }
+
+    /**
+     * Keeps a batch that failed every attempt for a later retry
+     */
+    private void holdBack(List<Score> batch) {
+        System.err.println("Holding back " + batch.size() + " scores after " + MAX_WRITE_ATTEMPTS
+                + " failed attempts: " + lastFailure);
+        unwritten.addAll(batch);
+        unwrittenCount.addAndGet(batch.size());
+        retryAt = System.nanoTime() + RETRY_DELAY_NANOS;
+        markCompleted(0); // Wake flush(), which counts held-back scores as tried
+    }
+
+    private void retryUnwritten() throws InterruptedException {
+        List<Score> retry = new ArrayList<>(unwritten);
+        for (int from = 0; from < retry.size(); from += batchSize) {
+            List<Score> batch = retry.subList(from, Math.min(retry.size(), from + batchSize));
+            if (!writeWithRetry(batch)) {
+                retryAt = System.nanoTime() + RETRY_DELAY_NANOS;
+                return;
+            }
+            unwritten.subList(0, batch.size()).clear();
+            unwrittenCount.addAndGet(-batch.size());
+            markCompleted(batch.size());
         }
-        // fallback to toString
-        return obj.toString();
     }
 
-    private static int extractInt(Object obj, String... methodNames) {
-        if (obj == null) return 0;
-        for (String mName : methodNames) {
+    private boolean writeWithRetry(List<Score> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
             try {
-                Method m = obj.getClass().getMethod(mName);
-                Object val = m.invoke(obj);
-                if (val instanceof Number) return ((Number) val).intValue();
-                if (val != null) return Integer.parseInt(val.toString());
-            } catch (Exception ignored) { }
+                insertScores(batch);
+                return true;
+            } catch (SQLException e) {
+                lastFailure = e;
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    return false;
+                }
+                Thread.sleep(100L << attempt);
+            }
         }
-        return 0;
     }
-}
 
+    private void markCompleted(int count) {
+        completed.addAndGet(count);
+        synchronized (progressLock) {
+            progressLock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Binds a {@link Score} to the parameters of an INSERT statement.
+ * Replaces the old reflective getter lookups with plain typed calls.
+ */
+@FunctionalInterface
+public interface ScoreMapper {
+
+    /**
+     * Maps a score onto {@code (player, points, moves, time_seconds, board_size, created_at, game_id)} in that parameter order
+     */
+    ScoreMapper DEFAULT = (ps, score) -> {
+        ps.setString(1, score.getPlayerName());
+        ps.setInt(2, score.getScore());
+        ps.setInt(3, score.getMoves());
+        ps.setLong(4, score.getTimeInSeconds());
+        ps.setInt(5, score.getBoardSize());
+        ps.setTimestamp(6, new Timestamp(score.getAchievedAt()));
+        ps.setString(7, score.getGameId());
+    };
+
+    /**
+     * Sets the statement parameters from the score
+     * @param ps The statement to bind
+     * @param score The score being written
+     * @throws SQLException If the driver rejects a value
+     */
+    void bind(PreparedStatement ps, Score score) throws SQLException;
+}
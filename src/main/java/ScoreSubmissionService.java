@@ -0,0 +1,404 @@
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers finished-game scores without blocking the UI and without losing them when storage is down.
+ * <p>
+ * Every submission is first appended to a local spool file, then delivered; a delivered submission is
+ * marked in the spool with an acknowledgement line. Anything left unacknowledged (for example after a
+ * crash or while the database is unreachable) is retried with exponential backoff and picked up again
+ * from the spool on the next start, so each score is delivered at least once. Every finished game is
+ * submitted under its own id; submitting the same id again while it is pending or just delivered is
+ * coalesced into the first submission, while two games with identical results stay two scores.
+ * Each submission carries the replay of its game, so the delivery can check the score before saving it.
+ * <p>
+ * All state is owned by a single worker thread, so none of it needs locking.
+ */
+public class ScoreSubmissionService implements AutoCloseable {
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int RECENT_IDS = 256; // Delivered submission ids remembered for coalescing
+
+    /**
+     * Result of a submission, reported after its first delivery attempt
+     */
+    public enum Outcome {
+        SAVED,   // Delivered to storage
+        QUEUED,  // Spooled locally; delivery will be retried
+        FAILED   // Could neither be delivered nor spooled; kept in memory and retried while the app runs
+    }
+
+    /**
+     * A score submitted for one finished game
+     */
+    public static final class Submission {
+        private final String id;
+        private final Score score;
+        private final byte[] replay;
+
+        Submission(String id, Score score, byte[] replay) {
+            this.id = id;
+            this.score = score;
+            this.replay = replay;
+        }
+
+        /**
+         * Gets the id the game was submitted under
+         * @return Submission id
+         */
+        public String getId() {
+            return id;
+        }
+
+        public Score getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the replay of the game the score comes from (see {@link ReplayWriter})
+         * @return The replay
+         */
+        public byte[] getReplay() {
+            return replay;
+        }
+    }
+
+    /**
+     * Writes a batch of submissions to their final destination. Must either save all of them or throw.
+     */
+    @FunctionalInterface
+    public interface Delivery {
+        void deliver(List<Submission> submissions) throws Exception;
+    }
+
+    private final Delivery delivery;
+    private final Path spoolFile;
+    private final ScheduledThreadPoolExecutor worker;
+
+    // Worker-thread state
+    private final Map<String, Submission> pending = new LinkedHashMap<>(); // Undelivered submissions by id, oldest first
+    private final Map<String, Boolean> recentlyDelivered = new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_IDS;
+        }
+    };
+    private FileChannel spool;
+    private ScheduledFuture<?> retry;
+    private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+    private boolean closing; // Set by close()'s final task; no more retries are scheduled
+
+    /**
+     * Constructor for ScoreSubmissionService.
+     * Scores left in the spool by a previous run are queued for delivery right away.
+     * @param delivery Where scores are delivered to
+     * @param spoolFile Append-only file holding submissions until they are delivered
+     */
+    public ScoreSubmissionService(Delivery delivery, Path spoolFile) {
+        this.delivery = delivery;
+        this.spoolFile = spoolFile;
+        this.worker = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "score-submitter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // A pending retry dies with the service
+        worker.execute(this::recoverSpool);
+    }
+
+    /**
+     * Creates an id to submit a finished game under
+     * @return A new, unique submission id
+     */
+    public static String newSubmissionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Submits the score of one finished game. Returns immediately; the future completes on the worker thread
+     * once the score has been spooled and delivery has been tried once.
+     * @param submissionId Id of the game (see {@link #newSubmissionId()}); resubmitting it does not add a second score
+     * @param score The score to submit; its game id must be the submission id
+     * @param replay The replay of the game (see {@link ReplayWriter#toByteArray()})
+     * @return The outcome of the first delivery attempt, FAILED if the service is closed
+     */
+    public CompletableFuture<Outcome> submit(String submissionId, Score score, byte[] replay) {
+        Objects.requireNonNull(submissionId);
+        Objects.requireNonNull(replay);
+        if (!submissionId.equals(score.getGameId())) {
+            throw new IllegalArgumentException("Score of game " + score.getGameId() + " submitted as " + submissionId);
+        }
+        Submission submission = new Submission(submissionId, score, replay);
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
+        try {
+            worker.execute(() -> {
+                String id = submission.getId();
+                if (recentlyDelivered.containsKey(id)) {
+                    result.complete(Outcome.SAVED);
+                    return;
+                }
+                if (pending.containsKey(id)) {
+                    result.complete(Outcome.QUEUED);
+                    return;
+                }
+
+                boolean spooled = appendToSpool("G\t" + encode(submission));
+                if (closing) {
+                    // Raced with close(): leave it for the next start
+                    closeSpool();
+                    result.complete(spooled ? Outcome.QUEUED : Outcome.FAILED);
+                    return;
+                }
+                pending.put(id, submission);
+                if (deliverPending()) {
+                    result.complete(Outcome.SAVED);
+                } else {
+                    result.complete(spooled ? Outcome.QUEUED : Outcome.FAILED);
+                }
+            });
+        } catch (RejectedExecutionException closed) {
+            result.complete(Outcome.FAILED);
+        }
+        return result;
+    }
+
+    /**
+     * Makes one last delivery attempt and stops the worker. Undelivered scores stay in the spool.
+     * If interrupted while waiting, the worker still finishes in the background and the interrupt flag is kept.
+     */
+    @Override
+    public void close() {
+        try {
+            worker.execute(() -> {
+                closing = true;
+                try {
+                    if (!pending.isEmpty()) {
+                        deliverPending(); // Does not schedule a retry while closing
+                    }
+                } finally {
+                    closeSpool();
+                }
+            });
+        } catch (RejectedExecutionException alreadyClosed) {
+            return;
+        }
+        worker.shutdown();
+        try {
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tries to deliver everything pending as one batch, scheduling a retry if it fails
+     * @return true if nothing is left pending
+     */
+    private boolean deliverPending() {
+        if (pending.isEmpty()) {
+            return true;
+        }
+        try {
+            delivery.deliver(new ArrayList<>(pending.values()));
+        } catch (Exception e) {
+            if (closing) {
+                System.err.println("Score delivery failed, leaving it in the spool: " + e.getMessage());
+                return false;
+            }
+            System.err.println("Score delivery failed, retrying in " + backoffMillis + " ms: " + e.getMessage());
+            scheduleRetry();
+            return false;
+        }
+
+        for (String id : pending.keySet()) {
+            appendToSpool("A\t" + id);
+            recentlyDelivered.put(id, Boolean.TRUE);
+        }
+        pending.clear();
+        backoffMillis = INITIAL_BACKOFF_MILLIS;
+        if (retry != null) {
+            retry.cancel(false);
+            retry = null;
+        }
+        compactSpool();
+        return true;
+    }
+
+    private void scheduleRetry() {
+        if (retry != null && !retry.isDone()) {
+            return;
+        }
+        // Jitter keeps a room full of kiosks from retrying in lockstep when the server comes back
+        long delay = backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis / 4 + 1);
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        retry = worker.schedule(() -> {
+            retry = null;
+            if (!closing) {
+                deliverPending();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ---- Spool file ----------------------------------------------------------------------------
+
+    /**
+     * Reads submissions that were never acknowledged back into the pending queue
+     */
+    private void recoverSpool() {
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(spoolFile);
+            int complete = 0; // Length up to and including the last newline
+            for (int i = bytes.length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    complete = i + 1;
+                    break;
+                }
+            }
+            if (complete < bytes.length) {
+                // Drop a line torn by a crash mid-write, or the next record would be glued onto it
+                try (FileChannel torn = FileChannel.open(spoolFile, StandardOpenOption.WRITE)) {
+                    torn.truncate(complete);
+                    torn.force(false);
+                }
+            }
+
+            Map<String, Submission> unacknowledged = new LinkedHashMap<>();
+            for (String line : new String(bytes, 0, complete, StandardCharsets.UTF_8).split("\n")) {
+                String[] parts = line.split("\t", 2);
+                if (parts.length < 2) {
+                    continue;
+                }
+                if (parts[0].equals("G")) {
+                    Submission submission = decode(parts[1]);
+                    if (submission != null) {
+                        unacknowledged.put(submission.getId(), submission);
+                    }
+                } else if (parts[0].equals("A")) {
+                    unacknowledged.remove(parts[1]);
+                }
+            }
+            pending.putAll(unacknowledged);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (!pending.isEmpty()) {
+            deliverPending();
+        } else {
+            compactSpool();
+        }
+    }
+
+    /**
+     * Appends one record and forces it to disk
+     * @return true if the record is durable
+     */
+    private boolean appendToSpool(String record) {
+        try {
+            if (spool == null) {
+                Path parent = spoolFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                spool = FileChannel.open(spoolFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            long start = spool.size();
+            ByteBuffer bytes = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+            try {
+                while (bytes.hasRemaining()) {
+                    spool.write(bytes);
+                }
+            } catch (IOException e) {
+                spool.truncate(start); // Don't leave half a record for the next one to be glued onto
+                throw e;
+            }
+            spool.force(false);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeSpool();
+            return false;
+        }
+    }
+
+    /**
+     * Empties the spool once every record in it has been acknowledged
+     */
+    private void compactSpool() {
+        if (!pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (spool != null) {
+                spool.truncate(0);
+            } else if (Files.exists(spoolFile)) {
+                Files.write(spoolFile, new byte[0]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void closeSpool() {
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException ignored) {
+                // the records already written are forced to disk
+            }
+            spool = null;
+        }
+    }
+
+    // ---- Record format: tab-separated, player name URL-encoded ---------------------------------
+    // G <id> <player> <points> <moves> <seconds> <board size> <finished at> <replay, base64>
+    // A <id>
+
+    private static String encode(Submission submission) {
+        Score score = submission.getScore();
+        return URLEncoder.encode(submission.getId(), StandardCharsets.UTF_8) + "\t"
+                + URLEncoder.encode(score.getPlayerName(), StandardCharsets.UTF_8) + "\t"
+                + score.getScore() + "\t" + score.getMoves() + "\t" + score.getTimeInSeconds() + "\t"
+                + score.getBoardSize() + "\t" + score.getAchievedAt() + "\t"
+                + Base64.getEncoder().encodeToString(submission.getReplay());
+    }
+
+    private static Submission decode(String record) {
+        String[] fields = record.split("\t");
+        if (fields.length != 8) {
+            return null;
+        }
+        try {
+            Score score = new Score(URLDecoder.decode(fields[1], StandardCharsets.UTF_8),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Long.parseLong(fields[4]),
+                    Integer.parseInt(fields[5]), Long.parseLong(fields[6]), URLDecoder.decode(fields[0], StandardCharsets.UTF_8));
+            return new Submission(score.getGameId(), score,
+                    Base64.getDecoder().decode(fields[7]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
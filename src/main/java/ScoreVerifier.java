@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks claimed scores against their replays before they are stored.
+ * Each replay (see {@link ReplayWriter}) is played into a headless {@link Game}; the points, moves,
+ * time and board size it produces must equal the claim, otherwise the score is rejected.
+ * A score without a replay is always rejected.
+ * <p>
+ * Verification runs on a fixed pool of workers with a bounded queue, so a batch of submissions is
+ * replayed in parallel and never on the caller's thread. When the queue is full, new submissions are
+ * refused straight away so the caller can retry later.
+ */
+public class ScoreVerifier implements AutoCloseable {
+    private final ThreadPoolExecutor workers;
+    
+    /**
+     * Thrown (through the returned future) when a score does not match its replay
+     */
+    public static class RejectedScoreException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        public RejectedScoreException(String message) {
+            super(message);
+        }
+        
+        public RejectedScoreException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+    
+    /**
+     * Constructor for ScoreVerifier with one worker per core
+     */
+    public ScoreVerifier() {
+        this(Runtime.getRuntime().availableProcessors(), 1024);
+    }
+    
+    /**
+     * Constructor for ScoreVerifier
+     * @param workerCount Number of replays verified at the same time
+     * @param queueCapacity Number of submissions that may wait for a worker
+     */
+    public ScoreVerifier(int workerCount, int queueCapacity) {
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), BackgroundExecutors.newThreadFactory("score-verifier"));
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Verifies a score in the background
+     * @param claimed The score as submitted
+     * @param replay The replay of the game the score claims to come from
+     * @return Completes with the verified score, or exceptionally with a {@link RejectedScoreException},
+     *         or a {@link RejectedExecutionException} if the verifier is saturated or closed
+     */
+    public CompletableFuture<Score> submit(Score claimed, byte[] replay) {
+        CompletableFuture<Score> result = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                try {
+                    result.complete(verify(claimed, replay));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Replays a game and checks that it produces the claimed score
+     * @param claimed The score as submitted
+     * @param replay The replay of the game the score claims to come from
+     * @return The score as recomputed from the replay (equal to the claim)
+     * @throws RejectedScoreException If the replay is missing, invalid, unfinished, or disagrees with the claim
+     */
+    public static Score verify(Score claimed, byte[] replay) throws RejectedScoreException {
+        if (replay == null) {
+            throw new RejectedScoreException("No replay");
+        }
+        Game game;
+        try {
+            game = ReplayReader.replay(replay);
+        } catch (IOException e) {
+            throw new RejectedScoreException("Invalid replay: " + e.getMessage(), e);
+        }
+        if (!game.isGameOver()) {
+            throw new RejectedScoreException("Replay does not finish the game");
+        }
+        Score actual = new Score(claimed.getPlayerName(), game.getScore(), game.getMoves(),
+                game.getElapsedTime(), game.getBoard().getTotalCards(), claimed.getAchievedAt(), claimed.getGameId());
+        if (actual.getScore() != claimed.getScore()
+                || actual.getMoves() != claimed.getMoves()
+                || actual.getTimeInSeconds() != claimed.getTimeInSeconds()
+                || actual.getBoardSize() != claimed.getBoardSize()) {
+            throw new RejectedScoreException(String.format(
+                    "Claimed %d points, %d moves, %d s on %d cards; replay gives %d points, %d moves, %d s on %d cards",
+                    claimed.getScore(), claimed.getMoves(), claimed.getTimeInSeconds(), claimed.getBoardSize(),
+                    actual.getScore(), actual.getMoves(), actual.getTimeInSeconds(), actual.getBoardSize()));
+        }
+        return actual;
+    }
+    
+    /**
+     * Gets the number of submissions waiting for a worker
+     * @return Queue length
+     */
+    public int getQueuedCount() {
+        return workers.getQueue().size();
+    }
+    
+    /**
+     * Finishes the verifications already accepted and stops the workers.
+     * If interrupted while waiting, the workers still finish in the background and the interrupt flag is kept.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
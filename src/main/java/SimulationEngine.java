@@ -0,0 +1,179 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Plays games headless (no JavaFX) to tune scoring and difficulty.
+ * Games run in parallel on the common fork/join pool, each on a virtual clock that advances
+ * by a fixed think time per flip plus the same one-second reveal pause the game screen uses,
+ * so a million games take seconds instead of weeks.
+ * <p>
+ * Run with {@code java SimulationEngine [gamesPerRun] [seed]} to print distributions for
+ * the 4x4, 6x6, 8x8 and 10x10 boards and each built-in strategy.
+ */
+public class SimulationEngine {
+    // Simulated time a player takes to flip a card, and how long both cards stay visible
+    private static final long FLIP_MILLIS = 700;
+    private static final long REVEAL_MILLIS = 1000; // Same as the PauseTransition in GameController
+    
+    private static final int[] BOARD_SIDES = {4, 6, 8, 10};
+    
+    private final long flipNanos;
+    private final long revealNanos;
+    
+    /**
+     * Aggregated outcome of many simulated games
+     */
+    public static final class Result {
+        private final Distribution moves = new Distribution();
+        private final Distribution score = new Distribution();
+        private final Distribution timeBonus = new Distribution();
+        private final Distribution movesBonus = new Distribution();
+        private final Distribution seconds = new Distribution();
+        
+        void add(Game game) {
+            moves.add(game.getMoves());
+            score.add(game.getScore());
+            timeBonus.add(game.getTimeBonus());
+            movesBonus.add(game.getMovesBonus());
+            seconds.add((int) game.getElapsedTime());
+        }
+        
+        void combine(Result other) {
+            moves.combine(other.moves);
+            score.combine(other.score);
+            timeBonus.combine(other.timeBonus);
+            movesBonus.combine(other.movesBonus);
+            seconds.combine(other.seconds);
+        }
+        
+        public Distribution getMoves() {
+            return moves;
+        }
+        
+        public Distribution getScore() {
+            return score;
+        }
+        
+        public Distribution getTimeBonus() {
+            return timeBonus;
+        }
+        
+        public Distribution getMovesBonus() {
+            return movesBonus;
+        }
+        
+        public Distribution getSeconds() {
+            return seconds;
+        }
+        
+        /**
+         * Gets the number of games played
+         * @return Game count
+         */
+        public long getGames() {
+            return moves.getCount();
+        }
+    }
+    
+    /**
+     * Constructor for SimulationEngine with the default player timing
+     */
+    public SimulationEngine() {
+        this(FLIP_MILLIS, REVEAL_MILLIS);
+    }
+    
+    /**
+     * Constructor for SimulationEngine
+     * @param flipMillis Simulated time per card flip
+     * @param revealMillis Simulated pause after the second card of a turn
+     */
+    public SimulationEngine(long flipMillis, long revealMillis) {
+        this.flipNanos = TimeUnit.MILLISECONDS.toNanos(flipMillis);
+        this.revealNanos = TimeUnit.MILLISECONDS.toNanos(revealMillis);
+    }
+    
+    /**
+     * Plays many games in parallel and aggregates their outcomes
+     * @param rows Board rows
+     * @param cols Board columns
+     * @param strategy How the simulated player chooses cards
+     * @param games Number of games to play
+     * @param seed Seed for the boards and the players' choices; game i always uses the same derived seed,
+     *             so a run can be repeated exactly
+     * @return The aggregated result
+     */
+    public Result run(int rows, int cols, PlayerStrategy strategy, int games, long seed) {
+        return IntStream.range(0, games).parallel().collect(Result::new,
+                (result, i) -> result.add(play(rows, cols, strategy, new SplittableRandom(seed ^ mix(i)))),
+                Result::combine);
+    }
+    
+    /**
+     * Plays one game to the end
+     * @param rows Board rows
+     * @param cols Board columns
+     * @param strategy How the simulated player chooses cards
+     * @param random Random source for the board seed and the player
+     * @return The finished game
+     */
+    public Game play(int rows, int cols, PlayerStrategy strategy, SplittableRandom random) {
+        long[] now = {0}; // Virtual clock in nanoseconds
+        Game game = new Game(rows, cols, random.nextLong(), () -> now[0]);
+        GameBoard board = game.getBoard();
+        PlayerStrategy.Player player = strategy.newPlayer(board.getTotalCards(), random);
+        
+        while (!game.isGameOver()) {
+            int first = player.pick(board, -1);
+            flip(game, player, first, now);
+            int second = player.pick(board, first);
+            flip(game, player, second, now);
+            now[0] += revealNanos;
+            if (!game.checkMatch()) {
+                game.flipBackCards();
+            }
+        }
+        return game;
+    }
+    
+    private void flip(Game game, PlayerStrategy.Player player, int index, long[] now) {
+        now[0] += flipNanos;
+        if (!game.flipCard(index)) {
+            throw new IllegalStateException("Strategy picked an unplayable card: " + index);
+        }
+        player.saw(index, game.getBoard().getValue(index));
+    }
+    
+    /**
+     * Spreads consecutive game numbers over the whole seed space (SplitMix64 finalizer)
+     */
+    private static long mix(long z) {
+        z = (z + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        PlayerStrategy[] strategies = {
+            PlayerStrategy.random(), PlayerStrategy.limitedMemory(8), PlayerStrategy.perfectMemory()
+        };
+        SimulationEngine engine = new SimulationEngine();
+        
+        for (int side : BOARD_SIDES) {
+            for (PlayerStrategy strategy : strategies) {
+                long start = System.nanoTime();
+                Result result = engine.run(side, side, strategy, games, seed);
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.printf("%dx%d %s: %d games in %d ms%n", side, side, strategy.getName(),
+                        result.getGames(), millis);
+                System.out.println("  moves       " + result.getMoves());
+                System.out.println("  score       " + result.getScore());
+                System.out.println("  time bonus  " + result.getTimeBonus());
+                System.out.println("  moves bonus " + result.getMovesBonus());
+                System.out.println("  seconds     " + result.getSeconds());
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Today's, this week's and all-time top scores for every board size, kept up to date one score at a time.
+ * <p>
+ * Each window of each board size holds its best scores in a concurrent skip list bounded to the top N, so adding a
+ * score is O(log N) and reading the top N is a walk from the head, no matter how many scores exist. Scores only
+ * ever enter a window while it is current, so once a score falls out of the top N it can never come back and the
+ * bound loses nothing. When a day or week ends the window rolls over to an empty list for the new period.
+ * <p>
+ * With a database, each period is seeded from it the first time it is read, so windows survive a restart.
+ * Scores loaded that way and delivered again are only counted once.
+ */
+public class WindowedLeaderboard {
+
+    /**
+     * Time span a leaderboard covers
+     */
+    public enum Window {
+        DAILY("Today"),
+        WEEKLY("This week"),
+        ALL_TIME("All time");
+
+        private final String label;
+
+        Window(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the start of the period containing a point in time: local midnight, the Monday starting
+         * the week, or the beginning of time
+         * @param millis The point in time, in epoch milliseconds
+         * @param zone Time zone that decides where days start
+         * @return Start of the period, in epoch milliseconds
+         */
+        public long periodStart(long millis, ZoneId zone) {
+            if (this == ALL_TIME) {
+                return Long.MIN_VALUE;
+            }
+            LocalDate day = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            if (this == WEEKLY) {
+                day = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            }
+            return day.atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Best first: points, then newest on ties like the database. The game id tells different games apart, so two
+    // identical results stay two scores while a score seeded from the database and delivered again is one.
+    // Times are compared to the second because some databases store no milliseconds.
+    private static final Comparator<Score> RANK = Comparator.comparingInt(Score::getScore).reversed()
+            .thenComparing(Comparator.comparingLong((Score score) -> Math.floorDiv(score.getAchievedAt(), 1000)).reversed())
+            .thenComparing(Score::getGameId);
+
+    private final ScoreDatabase database; // null when there is no database
+    private final int topN;
+    private final Clock clock;
+    private final Map<Integer, AtomicReferenceArray<Period>> boards = new ConcurrentHashMap<>();
+
+    /**
+     * The top scores of one window of one board size during one period
+     */
+    private static final class Period {
+        final long start;
+        final ConcurrentSkipListSet<Score> top = new ConcurrentSkipListSet<>(RANK);
+        final AtomicInteger size = new AtomicInteger(); // ConcurrentSkipListSet.size() walks the whole list
+        volatile boolean seeded;
+
+        Period(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Constructor for WindowedLeaderboard using the system clock and time zone
+     * @param database Store to seed windows from, or null to keep scores in memory only
+     * @param topN Number of scores kept per window
+     */
+    public WindowedLeaderboard(ScoreDatabase database, int topN) {
+        this(database, topN, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for WindowedLeaderboard
+     * @param database Store to seed windows from, or null to keep scores in memory only
+     * @param topN Number of scores kept per window
+     * @param clock Current time and the time zone that decides where days start
+     */
+    public WindowedLeaderboard(ScoreDatabase database, int topN, Clock clock) {
+        this.database = database;
+        this.topN = topN;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds saved scores to every window they belong in. Scores finished before a window's current period began
+     * only count for the longer windows.
+     * @param scores The scores to add
+     */
+    public void addAll(Collection<Score> scores) {
+        for (Score score : scores) {
+            add(score);
+        }
+    }
+
+    /**
+     * Adds a saved score to every window it belongs in
+     * @param score The score to add
+     */
+    public void add(Score score) {
+        long now = clock.millis();
+        for (Window window : Window.values()) {
+            Period period = current(score.getBoardSize(), window, Math.max(now, score.getAchievedAt()));
+            if (window.periodStart(score.getAchievedAt(), clock.getZone()) == period.start) {
+                insert(period, score);
+            }
+        }
+    }
+
+    /**
+     * Gets the best scores of a window, seeding it from the database the first time the period is read
+     * @param boardSize Number of cards on the board
+     * @param window Time span to rank
+     * @param limit Maximum number of scores to return (at most the top N kept)
+     * @return Scores ordered from best to worst
+     * @throws SQLException If the window had to be seeded and the database failed
+     */
+    public List<Score> top(int boardSize, Window window, int limit) throws SQLException {
+        Period period = current(boardSize, window, clock.millis());
+        if (!period.seeded) {
+            seed(boardSize, window, period);
+        }
+        List<Score> scores = new ArrayList<>(Math.min(limit, topN));
+        Iterator<Score> ranked = period.top.iterator();
+        while (scores.size() < limit && ranked.hasNext()) {
+            scores.add(ranked.next());
+        }
+        return Collections.unmodifiableList(scores);
+    }
+
+    /**
+     * Gets the period of a window that contains a point in time, rolling the window over if that period has begun
+     */
+    private Period current(int boardSize, Window window, long millis) {
+        AtomicReferenceArray<Period> periods = boards.computeIfAbsent(boardSize,
+                size -> new AtomicReferenceArray<>(Window.values().length));
+        long start = window.periodStart(millis, clock.getZone());
+        while (true) {
+            Period period = periods.get(window.ordinal());
+            if (period != null && period.start >= start) {
+                return period;
+            }
+            Period next = new Period(start);
+            if (periods.compareAndSet(window.ordinal(), period, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void insert(Period period, Score score) {
+        if (!period.top.add(score)) {
+            return; // Already there, e.g. seeded from the database and then delivered
+        }
+        // Over the bound: drop the worst, which may well be the score just added
+        if (period.size.incrementAndGet() > topN && period.top.pollLast() != null) {
+            period.size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Loads the period's top scores from the database, once
+     */
+    private void seed(int boardSize, Window window, Period period) throws SQLException {
+        synchronized (period) {
+            if (period.seeded) {
+                return;
+            }
+            if (database != null) {
+                try {
+                    // Make sure scores still waiting in the write-behind queue are part of the result
+                    database.flush();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while flushing pending scores", e);
+                } catch (SQLException e) {
+                    // Scores the database rejected are retried by its writer; rank what is stored meanwhile
+                    System.err.println(e.getMessage());
+                }
+                List<Score> stored = window == Window.ALL_TIME
+                        ? database.topScores(boardSize, topN)
+                        : database.topScoresSince(boardSize, period.start, topN);
+                for (Score score : stored) {
+                    insert(period, score);
+                }
+            }
+            period.seeded = true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs {@link ScoreDatabase} against an in-memory H2 database
+ */
+class ScoreDatabaseTest {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private String url;
+    private ScoreDatabase database;
+
+    @BeforeEach
+    void open() throws SQLException {
+        // A fresh database per test; DB_CLOSE_DELAY keeps it alive between pooled connections
+        url = "jdbc:h2:mem:scores" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+        database = new ScoreDatabase(url, "sa", "", 2, 64, 8, 20);
+        database.init();
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    void queuedScoresAreReadableAfterFlush() throws Exception {
+        database.insertScore(new Score("ann", 300, 10, 40, 16, 1_000));
+        database.insertScore(new Score("bob", 500, 8, 30, 16, 2_000));
+        database.insertScore(new Score("ann", 900, 12, 50, 36, 3_000));
+        database.flush();
+
+        List<Score> top = database.topScores(16, 10);
+        assertEquals(2, top.size());
+        assertEquals("bob", top.get(0).getPlayerName());
+        assertEquals(2_000, top.get(0).getAchievedAt());
+        assertEquals(900, database.bestFor("ann").getScore());
+        assertNull(database.bestFor("nobody"));
+    }
+
+    @Test
+    void pagesCoverTheRankingOnce() throws Exception {
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            scores.add(new Score("p" + i, i % 5 * 100, 10, 30, 16, 1_000L * i)); // Many ties on points
+        }
+        database.insertScores(scores);
+
+        List<Score> walked = new ArrayList<>();
+        ScoreDatabase.PageKey key = null;
+        ScoreDatabase.Page page;
+        do {
+            page = database.page(16, key, 7);
+            walked.addAll(page.getScores());
+            key = page.getLastKey();
+        } while (!page.getScores().isEmpty());
+        assertEquals(25, walked.size());
+        assertEquals(25, walked.stream().map(Score::getPlayerName).distinct().count());
+    }
+
+    @Test
+    void closeWritesEveryAcceptedScore() throws Exception {
+        int threads = 4;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread writer = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 500; i++) {
+                    try {
+                        database.insertScore(new Score("t" + i, i, 1, 1, 16, 1_000));
+                        accepted.incrementAndGet();
+                    } catch (SQLException closed) {
+                        return;
+                    }
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        started.await();
+        database.close(); // Races with the inserts still running
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(accepted.get(), countRows());
+    }
+
+    @Test
+    void rejectedBatchesAreReportedAndKept() throws Exception {
+        execute("DROP TABLE scores");
+        database.insertScore(new Score("ann", 100, 5, 20, 16, 1_000));
+        assertThrows(SQLException.class, database::flush);
+
+        database.init(); // The table is back; close() retries the held-back score
+        database.close();
+        assertEquals(1, countRows());
+    }
+
+    private int countRows() throws SQLException {
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM scores")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement s = c.createStatement()) {
+            s.executeUpdate(sql);
+        }
+    }
+}